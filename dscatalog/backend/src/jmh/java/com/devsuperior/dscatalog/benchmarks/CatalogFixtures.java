@@ -0,0 +1,72 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.entities.Role;
+import com.devsuperior.dscatalog.entities.User;
+
+/**
+ * Massa de dados dos benchmarks, montada sem banco. Semente fixa para que duas
+ * execucoes comparem exatamente os mesmos objetos.
+ */
+final class CatalogFixtures {
+
+	private static final String WORDS = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod "
+			+ "tempor incididunt ut labore et dolore magna aliqua. ";
+
+	private CatalogFixtures() {
+	}
+
+	static List<Category> categories(int count) {
+		List<Category> list = new ArrayList<>(count);
+		for (long i = 1; i <= count; i++) {
+			list.add(new Category(i, "Categoria " + i));
+		}
+		return list;
+	}
+
+	static List<Product> products(int count, int descriptionLength, int categoriesPerProduct) {
+		Random random = new Random(42);
+		List<Category> categories = categories(10);
+		List<Product> list = new ArrayList<>(count);
+		for (long i = 1; i <= count; i++) {
+			Product product = new Product(i, "PC Gamer " + i, description(descriptionLength),
+					500.0 + random.nextInt(4000), "https://img.com/" + i + "-big.jpg",
+					Instant.parse("2020-07-14T10:00:00Z").plusSeconds(i * 3600));
+			for (int c = 0; c < categoriesPerProduct; c++) {
+				product.getCategories().add(categories.get((int) ((i + c) % categories.size())));
+			}
+			list.add(product);
+		}
+		return list;
+	}
+
+	static List<User> users(int count) {
+		Role operator = new Role(1L, "ROLE_OPERATOR");
+		Role admin = new Role(2L, "ROLE_ADMIN");
+		List<User> list = new ArrayList<>(count);
+		for (long i = 1; i <= count; i++) {
+			User user = new User(i, "Nome " + i, "Sobrenome " + i, "user" + i + "@gmail.com", "$2a$10$hash");
+			user.getRoles().add(operator);
+			if (i % 2 == 0) {
+				user.getRoles().add(admin);
+			}
+			list.add(user);
+		}
+		return list;
+	}
+
+	private static String description(int length) {
+		StringBuilder sb = new StringBuilder(length);
+		while (sb.length() < length) {
+			sb.append(WORDS);
+		}
+		return sb.substring(0, length);
+	}
+
+}
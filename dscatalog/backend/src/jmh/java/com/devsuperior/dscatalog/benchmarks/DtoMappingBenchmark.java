@@ -0,0 +1,88 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.UserDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.entities.User;
+
+/**
+ * Custo de montar os DTOs a partir das entidades ja carregadas, sem banco.
+ * Cada operacao mapeia uma pagina inteira, do tamanho usado pelo frontend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DtoMappingBenchmark {
+
+	@Param({"12", "100"})
+	private int pageSize;
+
+	// Tamanho da descricao do data.sql e de uma descricao longa de marketplace
+	@Param({"450", "4000"})
+	private int descriptionLength;
+
+	@Param({"1", "3"})
+	private int categoriesPerProduct;
+
+	private List<Product> products;
+	private Page<Product> productPage;
+	private Page<User> userPage;
+	private List<Category> categories;
+
+	@Setup
+	public void setup() {
+		products = CatalogFixtures.products(pageSize, descriptionLength, categoriesPerProduct);
+		productPage = new PageImpl<>(products, PageRequest.of(0, pageSize), 1000);
+		userPage = new PageImpl<>(CatalogFixtures.users(pageSize), PageRequest.of(0, pageSize), 1000);
+		categories = CatalogFixtures.categories(pageSize);
+	}
+
+	@Benchmark
+	public void productDto(Blackhole blackhole) {
+		for (Product product : products) {
+			blackhole.consume(new ProductDTO(product, product.getCategories()));
+		}
+	}
+
+	@Benchmark
+	public Page<ProductDTO> productPageMap() {
+		return productPage.map(product -> new ProductDTO(product, product.getCategories()));
+	}
+
+	@Benchmark
+	public Page<UserDTO> userPageMap() {
+		return userPage.map(UserDTO::new);
+	}
+
+	@Benchmark
+	public void categoryDto(Blackhole blackhole) {
+		for (Category category : categories) {
+			blackhole.consume(new CategoryDTO(category));
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Serializacao JSON da listagem de produtos, como o GET /products responde.
+ * O ObjectMapper e montado como o do Spring Boot (datas em ISO-8601).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JsonSerializationBenchmark {
+
+	@Param({"12", "100"})
+	private int pageSize;
+
+	@Param({"450", "4000"})
+	private int descriptionLength;
+
+	@Param({"1", "3"})
+	private int categoriesPerProduct;
+
+	private ObjectMapper objectMapper;
+	private Page<Product> productPage;
+	private Page<ProductDTO> dtoPage;
+
+	@Setup
+	public void setup() {
+		objectMapper = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+		productPage = new PageImpl<>(CatalogFixtures.products(pageSize, descriptionLength, categoriesPerProduct),
+				PageRequest.of(0, pageSize), 1000);
+		dtoPage = productPage.map(product -> new ProductDTO(product, product.getCategories()));
+	}
+
+	@Benchmark
+	public byte[] serializePage() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(dtoPage);
+	}
+
+	// Caminho completo do controller: mapeamento mais serializacao
+	@Benchmark
+	public byte[] mapAndSerializePage() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(
+				productPage.map(product -> new ProductDTO(product, product.getCategories())));
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga em malha aberta: as requisicoes saem numa taxa fixa, sem
+ * esperar as anteriores, ate o limite de requisicoes em andamento. A latencia
+ * e contada a partir do horario em que a requisicao deveria ter saido, entao o
+ * tempo esperando vaga tambem entra no p99 (sem coordinated omission).
+ */
+class LoadGenerator {
+
+	private final int rate;
+	private final int concurrency;
+	private final Duration warmup;
+	private final Duration duration;
+	private final long seed;
+
+	LoadGenerator(int rate, int concurrency, Duration warmup, Duration duration, long seed) {
+		this.rate = rate;
+		this.concurrency = concurrency;
+		this.warmup = warmup;
+		this.duration = duration;
+		this.seed = seed;
+	}
+
+	LoadReport run(WeightedScenarios scenarios) throws InterruptedException {
+		HttpClient client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(5))
+				.build();
+		Map<String, LoadReport.Stats> stats = new LinkedHashMap<>();
+		scenarios.getScenarios().forEach(scenario -> stats.put(scenario.getName(), new LoadReport.Stats()));
+		LoadReport.Stats total = new LoadReport.Stats();
+
+		Semaphore inFlight = new Semaphore(concurrency);
+		Random random = new Random(seed);
+		long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+		long start = System.nanoTime();
+		long measureFrom = start + warmup.toNanos();
+		long end = measureFrom + duration.toNanos();
+
+		for (long i = 0; ; i++) {
+			long intended = start + i * interval;
+			if (intended >= end) {
+				break;
+			}
+			long wait = intended - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			inFlight.acquire();
+			Scenario scenario = scenarios.pick(random);
+			boolean measured = intended >= measureFrom;
+			client.sendAsync(scenario.toRequest(), BodyHandlers.discarding())
+					.whenComplete((response, error) -> {
+						long latency = System.nanoTime() - intended;
+						inFlight.release();
+						if (measured) {
+							boolean ok = error == null && response.statusCode() < 400;
+							stats.get(scenario.getName()).record(latency, ok);
+							total.record(latency, ok);
+						}
+					});
+		}
+		// Espera as ultimas respostas antes de fechar o relatorio
+		inFlight.acquire(concurrency);
+		return new LoadReport(rate, concurrency, warmup, duration, seed, stats, total);
+	}
+
+}
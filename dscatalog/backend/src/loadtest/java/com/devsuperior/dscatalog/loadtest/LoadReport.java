@@ -0,0 +1,92 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Relatorio em texto, uma linha por requisicao da collection, no mesmo layout a
+ * cada execucao para poder ser comparado com diff entre builds.
+ */
+class LoadReport {
+
+	private static final String HEADER_FORMAT = "%-36s %9s %7s %9s %9s %9s %9s %9s%n";
+	private static final String ROW_FORMAT = "%-36s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n";
+
+	private final int rate;
+	private final int concurrency;
+	private final Duration warmup;
+	private final Duration duration;
+	private final long seed;
+	private final Map<String, Stats> stats;
+	private final Stats total;
+
+	LoadReport(int rate, int concurrency, Duration warmup, Duration duration, long seed,
+			Map<String, Stats> stats, Stats total) {
+		this.rate = rate;
+		this.concurrency = concurrency;
+		this.warmup = warmup;
+		this.duration = duration;
+		this.seed = seed;
+		this.stats = stats;
+		this.total = total;
+	}
+
+	String format() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format(Locale.ROOT, "# rate=%d/s concurrency=%d warmup=%ds duration=%ds seed=%d%n",
+				rate, concurrency, warmup.getSeconds(), duration.getSeconds(), seed));
+		sb.append(String.format(Locale.ROOT, HEADER_FORMAT,
+				"scenario", "requests", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)"));
+		stats.forEach((name, value) -> sb.append(row(name, value)));
+		sb.append(row("TOTAL", total));
+		return sb.toString();
+	}
+
+	void write(Path file) throws IOException {
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		Files.write(file, format().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String row(String name, Stats value) {
+		Histogram histogram = value.histogram;
+		long requests = value.requests.sum();
+		return String.format(Locale.ROOT, ROW_FORMAT, name, requests, value.errors.sum(),
+				(double) requests / duration.getSeconds(),
+				millis(histogram.getValueAtPercentile(50.0)),
+				millis(histogram.getValueAtPercentile(99.0)),
+				millis(histogram.getValueAtPercentile(99.9)),
+				millis(histogram.getMaxValue()));
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+
+	// Latencias em microssegundos, ate 1 minuto, com 3 digitos significativos
+	static class Stats {
+		private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+		private final ConcurrentHistogram histogram = new ConcurrentHistogram(MAX_MICROS, 3);
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+
+		void record(long latencyNanos, boolean ok) {
+			histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_MICROS));
+			requests.increment();
+			if (!ok) {
+				errors.increment();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.devsuperior.dscatalog.DscatalogApplication;
+
+/**
+ * Ponto de entrada do teste de carga. Sem loadtest.target a aplicacao sobe
+ * neste mesmo processo, com o profile test (H2 em memoria) e porta aleatoria;
+ * gerador e servidor dividem a CPU, entao compare sempre na mesma maquina.
+ */
+public class LoadTestMain {
+
+	private static final String DEFAULT_SCENARIOS = "loadtest-scenarios.txt";
+
+	public static void main(String[] args) throws Exception {
+		Path collection = Paths.get(System.getProperty("loadtest.collection", "../DSCatalog-Bootcamp.postman_collection.json"));
+		Path report = Paths.get(System.getProperty("loadtest.report", "target/loadtest-report.txt"));
+		String target = System.getProperty("loadtest.target", "");
+
+		ConfigurableApplicationContext context = null;
+		if (target.isBlank()) {
+			context = SpringApplication.run(DscatalogApplication.class, "--server.port=0", "--app.reactive.port=0");
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			target = "http://localhost:" + port;
+		}
+		try {
+			List<Scenario> scenarios = PostmanCollection.read(collection);
+			Map<String, String> variables = new HashMap<>(Map.of("host", target));
+			WeightedScenarios mix;
+			try (BufferedReader reader = openScenarios()) {
+				mix = WeightedScenarios.load(scenarios, reader, variables, HttpClient.newHttpClient());
+			}
+			LoadGenerator generator = new LoadGenerator(
+					Integer.getInteger("loadtest.rate", 200),
+					Integer.getInteger("loadtest.concurrency", 64),
+					Duration.ofSeconds(Integer.getInteger("loadtest.warmup", 10)),
+					Duration.ofSeconds(Integer.getInteger("loadtest.duration", 60)),
+					Long.getLong("loadtest.seed", 42L));
+			LoadReport result = generator.run(mix);
+			result.write(report);
+			System.out.print(result.format());
+			System.out.println("Report written to " + report.toAbsolutePath());
+		}
+		finally {
+			if (context != null) {
+				SpringApplication.exit(context);
+			}
+		}
+	}
+
+	private static BufferedReader openScenarios() throws IOException {
+		String file = System.getProperty("loadtest.scenarios");
+		if (file != null && !file.isBlank()) {
+			return Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8);
+		}
+		return new BufferedReader(new InputStreamReader(
+				LoadTestMain.class.getClassLoader().getResourceAsStream(DEFAULT_SCENARIOS), StandardCharsets.UTF_8));
+	}
+
+}
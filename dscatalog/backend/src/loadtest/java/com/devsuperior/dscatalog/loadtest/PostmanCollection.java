@@ -0,0 +1,43 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Leitura minima do formato v2.1 do Postman: pastas, metodo, url e corpo raw.
+ * As variaveis {{nome}} ficam como estao; ver {@link Scenario#resolve}.
+ */
+final class PostmanCollection {
+
+	private PostmanCollection() {
+	}
+
+	static List<Scenario> read(Path file) throws IOException {
+		JsonNode root = new ObjectMapper().readTree(file.toFile());
+		List<Scenario> scenarios = new ArrayList<>();
+		collect(root.path("item"), "", scenarios);
+		return scenarios;
+	}
+
+	private static void collect(JsonNode items, String folder, List<Scenario> scenarios) {
+		for (JsonNode item : items) {
+			String name = folder + item.path("name").asText();
+			if (item.has("item")) {
+				collect(item.path("item"), name + "/", scenarios);
+				continue;
+			}
+			JsonNode request = item.path("request");
+			JsonNode url = request.path("url");
+			String rawUrl = url.isTextual() ? url.asText() : url.path("raw").asText();
+			JsonNode body = request.path("body");
+			String rawBody = "raw".equals(body.path("mode").asText()) ? body.path("raw").asText() : null;
+			scenarios.add(new Scenario(name, request.path("method").asText("GET"), rawUrl, rawBody));
+		}
+	}
+
+}
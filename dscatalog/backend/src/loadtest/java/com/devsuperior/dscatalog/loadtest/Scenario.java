@@ -0,0 +1,86 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Uma requisicao da collection do Postman. O nome e "pasta/nome", como aparece
+ * no Postman; url e corpo podem ter variaveis {{nome}} ate o resolve.
+ */
+class Scenario {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+	private static final Pattern VARIABLE = Pattern.compile("\\{\\{([^}]+)\\}\\}");
+
+	private final String name;
+	private final String method;
+	private final String url;
+	private final String body;
+
+	Scenario(String name, String method, String url, String body) {
+		this.name = name;
+		this.method = method;
+		this.url = url;
+		this.body = body;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	Scenario resolve(Map<String, String> variables) {
+		return new Scenario(name, method, resolve(url, variables), body == null ? null : resolve(body, variables));
+	}
+
+	HttpRequest toRequest() {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(TIMEOUT);
+		if (body == null || body.isBlank()) {
+			return builder.method(method, BodyPublishers.noBody()).build();
+		}
+		return builder.header("Content-Type", "application/json")
+				.method(method, BodyPublishers.ofString(body))
+				.build();
+	}
+
+	/**
+	 * Executa a requisicao uma vez e devolve o id do recurso criado, o ultimo
+	 * trecho do header Location.
+	 */
+	String createAndReadId(HttpClient client) throws IOException, InterruptedException {
+		HttpResponse<Void> response = client.send(toRequest(), BodyHandlers.discarding());
+		String location = response.headers().firstValue("Location").orElse("");
+		if (response.statusCode() != 201 || location.isEmpty()) {
+			throw new IllegalStateException(this + " returned " + response.statusCode() + " without a Location header");
+		}
+		return location.substring(location.lastIndexOf('/') + 1);
+	}
+
+	private static String resolve(String text, Map<String, String> variables) {
+		Matcher matcher = VARIABLE.matcher(text);
+		StringBuffer sb = new StringBuffer();
+		while (matcher.find()) {
+			String value = variables.get(matcher.group(1));
+			if (value == null) {
+				throw new IllegalArgumentException("Postman variable not set: " + matcher.group(1));
+			}
+			matcher.appendReplacement(sb, Matcher.quoteReplacement(value));
+		}
+		matcher.appendTail(sb);
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + method + " " + url + ")";
+	}
+
+}
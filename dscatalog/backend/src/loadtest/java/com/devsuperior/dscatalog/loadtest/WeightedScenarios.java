@@ -0,0 +1,86 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Mistura de requisicoes do teste. Cada linha do arquivo de pesos e
+ * "peso pasta/nome"; requisicoes da collection que nao aparecem no arquivo
+ * ficam de fora. Uma linha "setup variavel pasta/nome" executa a requisicao
+ * uma vez, na hora da leitura, e guarda o id do header Location na variavel
+ * para as linhas seguintes.
+ */
+class WeightedScenarios {
+
+	private static final String SETUP = "setup";
+
+	private final List<Scenario> scenarios = new ArrayList<>();
+	private final List<Integer> cumulativeWeights = new ArrayList<>();
+	private int totalWeight;
+
+	static WeightedScenarios load(List<Scenario> collection, BufferedReader weights, Map<String, String> variables,
+			HttpClient client) throws IOException, InterruptedException {
+		Map<String, Scenario> byName = collection.stream()
+				.collect(Collectors.toMap(Scenario::getName, Function.identity()));
+		WeightedScenarios result = new WeightedScenarios();
+		String line;
+		while ((line = weights.readLine()) != null) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			if (line.startsWith(SETUP + " ")) {
+				String[] parts = line.split("\\s+", 3);
+				Scenario scenario = find(byName, parts.length == 3 ? parts[2] : "", line).resolve(variables);
+				variables.put(parts[1], scenario.createAndReadId(client));
+				continue;
+			}
+			String[] parts = line.split("\\s+", 2);
+			Scenario scenario = find(byName, parts.length == 2 ? parts[1] : "", line);
+			result.add(scenario.resolve(variables), Integer.parseInt(parts[0]));
+		}
+		if (result.totalWeight == 0) {
+			throw new IllegalArgumentException("No scenario with a positive weight");
+		}
+		return result;
+	}
+
+	private static Scenario find(Map<String, Scenario> byName, String name, String line) {
+		Scenario scenario = byName.get(name);
+		if (scenario == null) {
+			throw new IllegalArgumentException("Scenario not found in the Postman collection: " + line);
+		}
+		return scenario;
+	}
+
+	private void add(Scenario scenario, int weight) {
+		if (weight <= 0) {
+			return;
+		}
+		totalWeight += weight;
+		scenarios.add(scenario);
+		cumulativeWeights.add(totalWeight);
+	}
+
+	Scenario pick(Random random) {
+		int value = random.nextInt(totalWeight);
+		for (int i = 0; i < scenarios.size(); i++) {
+			if (value < cumulativeWeights.get(i)) {
+				return scenarios.get(i);
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+	List<Scenario> getScenarios() {
+		return scenarios;
+	}
+
+}
@@ -0,0 +1,148 @@
+package com.devsuperior.dscatalog.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Conta o que o Hibernate faz na thread atual entre start() e stop(): comandos
+ * SQL, entidades carregadas e colecoes inicializadas. As estatisticas do
+ * Hibernate sao globais; estas sao por requisicao. As medicoes podem ser
+ * aninhadas e cada evento conta em todas as que estiverem abertas.
+ * <p>
+ * O Hibernate cria as instancias: o inspetor pela propriedade
+ * hibernate.session_factory.statement_inspector e os listeners pelo
+ * META-INF/services do Integrator. Assim a contagem vale tambem nos testes
+ * de fatia (@DataJpaTest), sem depender de beans do Spring.
+ */
+public class HibernateRequestStats implements StatementInspector, PostLoadEventListener,
+		InitializeCollectionEventListener, Integrator {
+	private static final long serialVersionUID = 1L;
+
+	private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+	public static Counts start() {
+		Counts counts = new Counts(CURRENT.get());
+		CURRENT.set(counts);
+		return counts;
+	}
+
+	public static void stop(Counts counts) {
+		if (CURRENT.get() == counts) {
+			if (counts.parent != null) {
+				CURRENT.set(counts.parent);
+			}
+			else {
+				CURRENT.remove();
+			}
+		}
+	}
+
+	@Override
+	public String inspect(String sql) {
+		Counts current = CURRENT.get();
+		if (current == null) {
+			return sql;
+		}
+		String command = sql.stripLeading();
+		for (Counts counts = current; counts != null; counts = counts.parent) {
+			counts.statements++;
+			if (startsWith(command, "select")) {
+				counts.selects++;
+			}
+			else if (startsWith(command, "insert")) {
+				counts.inserts++;
+			}
+			else if (startsWith(command, "update")) {
+				counts.updates++;
+			}
+			else if (startsWith(command, "delete")) {
+				counts.deletes++;
+			}
+		}
+		return sql;
+	}
+
+	private static boolean startsWith(String sql, String command) {
+		return sql.regionMatches(true, 0, command, 0, command.length());
+	}
+
+	@Override
+	public void onPostLoad(PostLoadEvent event) {
+		for (Counts counts = CURRENT.get(); counts != null; counts = counts.parent) {
+			counts.entityLoads++;
+		}
+	}
+
+	@Override
+	public void onInitializeCollection(InitializeCollectionEvent event) {
+		for (Counts counts = CURRENT.get(); counts != null; counts = counts.parent) {
+			counts.collectionFetches++;
+		}
+	}
+
+	@Override
+	public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+			SessionFactoryServiceRegistry serviceRegistry) {
+		EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_LOAD, this);
+		registry.appendListeners(EventType.INIT_COLLECTION, this);
+	}
+
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+	}
+
+	// Usado so pela thread que abriu a medicao
+	public static class Counts {
+		private final Counts parent;
+		private long statements;
+		private long selects;
+		private long inserts;
+		private long updates;
+		private long deletes;
+		private long entityLoads;
+		private long collectionFetches;
+
+		Counts(Counts parent) {
+			this.parent = parent;
+		}
+
+		public long getStatements() {
+			return statements;
+		}
+
+		public long getSelects() {
+			return selects;
+		}
+
+		public long getInserts() {
+			return inserts;
+		}
+
+		public long getUpdates() {
+			return updates;
+		}
+
+		public long getDeletes() {
+			return deletes;
+		}
+
+		public long getEntityLoads() {
+			return entityLoads;
+		}
+
+		public long getCollectionFetches() {
+			return collectionFetches;
+		}
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.devsuperior.dscatalog.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Metricas alem das que o Actuator ja publica (http.server.requests, hikaricp.*
+ * e hibernate.*): tempo dos servicos, tamanho das respostas e contagem do
+ * Hibernate por requisicao (registrada pelo proprio Hibernate, ver
+ * HibernateRequestStats). Os histogramas e percentis ficam no
+ * application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+	@Bean
+	public ServiceMetricsAspect serviceMetricsAspect(MeterRegistry registry) {
+		return new ServiceMetricsAspect(registry);
+	}
+
+	@Bean
+	public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(MeterRegistry registry) {
+		FilterRegistrationBean<RequestMetricsFilter> registration =
+				new FilterRegistrationBean<>(new RequestMetricsFilter(registry));
+		// Logo depois do filtro de metricas do Actuator, antes do Spring Security
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+		return registration;
+	}
+
+}
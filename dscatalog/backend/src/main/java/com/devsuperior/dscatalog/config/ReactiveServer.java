@@ -0,0 +1,60 @@
+package com.devsuperior.dscatalog.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Servidor Reactor Netty da API reativa. Sobe e desce junto com o contexto, ao
+ * lado do Tomcat; porta negativa desliga o servidor e porta 0 usa uma porta livre.
+ */
+public class ReactiveServer implements SmartLifecycle {
+
+	private static final Logger log = LoggerFactory.getLogger(ReactiveServer.class);
+
+	private final HttpHandler httpHandler;
+	private final int port;
+	private volatile DisposableServer server;
+
+	public ReactiveServer(HttpHandler httpHandler, int port) {
+		this.httpHandler = httpHandler;
+		this.port = port;
+	}
+
+	@Override
+	public void start() {
+		if (port < 0) {
+			return;
+		}
+		server = HttpServer.create()
+				.port(port)
+				.handle(new ReactorHttpHandlerAdapter(httpHandler))
+				.bindNow();
+		log.info("Reactive API started on port {}", server.port());
+	}
+
+	@Override
+	public void stop() {
+		DisposableServer current = server;
+		if (current != null) {
+			current.disposeNow();
+			server = null;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return server != null;
+	}
+
+	public int getPort() {
+		DisposableServer current = server;
+		return current == null ? -1 : current.port();
+	}
+
+}
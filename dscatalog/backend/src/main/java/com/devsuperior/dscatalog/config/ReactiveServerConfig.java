@@ -0,0 +1,84 @@
+package com.devsuperior.dscatalog.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.source.InvalidConfigurationPropertyValueException;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import com.devsuperior.dscatalog.resources.ReactiveCatalogRoutes;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+
+/**
+ * Com Spring MVC e WebFlux no classpath o Spring Boot sobe so o Tomcat, entao a
+ * API reativa ganha um servidor Netty proprio em app.reactive.port. Os codecs
+ * recebem os mesmos ajustes do Jackson usado pelo Spring MVC, para que os DTOs
+ * saiam no mesmo formato.
+ *
+ * O pool R2DBC e criado aqui e nao vira bean: com um ConnectionFactory no
+ * contexto o Spring Boot deixaria de criar o DataSource JDBC (e com ele o JPA).
+ * Por isso o R2dbcAutoConfiguration fica excluido no application.properties.
+ * Sem spring.r2dbc.url a aplicacao nao sobe: o padrao do Spring Boot seria um
+ * H2 embarcado vazio, e a API reativa responderia sem erro e sem dados.
+ */
+@Configuration
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveServerConfig implements DisposableBean {
+
+	private ConnectionPool connectionPool;
+
+	@Bean
+	public DatabaseClient reactiveDatabaseClient(R2dbcProperties properties) {
+		if (!StringUtils.hasText(properties.getUrl())) {
+			throw new InvalidConfigurationPropertyValueException("spring.r2dbc.url", properties.getUrl(),
+					"The reactive API needs the URL of the catalog database");
+		}
+		ConnectionFactory connectionFactory = ConnectionFactoryBuilder.of(properties, () -> null).build();
+		R2dbcProperties.Pool pool = properties.getPool();
+		ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration.builder(connectionFactory)
+				.initialSize(pool.getInitialSize())
+				.maxSize(pool.getMaxSize())
+				.validationDepth(pool.getValidationDepth());
+		if (pool.getMaxIdleTime() != null) {
+			configuration.maxIdleTime(pool.getMaxIdleTime());
+		}
+		if (pool.getValidationQuery() != null) {
+			configuration.validationQuery(pool.getValidationQuery());
+		}
+		connectionPool = new ConnectionPool(configuration.build());
+		return DatabaseClient.create(connectionPool);
+	}
+
+	@Bean
+	public HandlerStrategies reactiveHandlerStrategies(ObjectProvider<CodecCustomizer> codecCustomizers) {
+		return HandlerStrategies.builder()
+				.codecs(configurer -> codecCustomizers.orderedStream().forEach(customizer -> customizer.customize(configurer)))
+				.build();
+	}
+
+	@Bean
+	public ReactiveServer reactiveServer(ReactiveCatalogRoutes routes, HandlerStrategies reactiveHandlerStrategies,
+			@Value("${app.reactive.port:8081}") int port) {
+		return new ReactiveServer(RouterFunctions.toHttpHandler(routes.routes(), reactiveHandlerStrategies), port);
+	}
+
+	@Override
+	public void destroy() {
+		if (connectionPool != null) {
+			connectionPool.dispose();
+		}
+	}
+
+}
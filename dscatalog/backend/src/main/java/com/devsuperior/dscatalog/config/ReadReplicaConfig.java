@@ -0,0 +1,130 @@
+package com.devsuperior.dscatalog.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Com app.datasource.routing.enabled=true as transacoes readOnly dos servicos
+ * vao para as replicas de app.datasource.replicas[n] e as escritas para o
+ * spring.datasource.* de sempre. Cada pool herda o spring.datasource.hikari.*.
+ * Desligado, o DataSource continua sendo o do Spring Boot.
+ *
+ * O roteador e os pools nao viram beans: um segundo DataSource no contexto
+ * entraria no ciclo de inicializacao do schema do Spring Boot. Por isso os
+ * pools sao fechados aqui, quando o contexto e desligado.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+public class ReadReplicaConfig implements DisposableBean {
+
+	private ReadWriteRoutingDataSource routingDataSource;
+
+	// A conexao so e escolhida no primeiro comando, quando a transacao ja sabe se e readOnly
+	@Bean
+	@Primary
+	public DataSource dataSource(DataSourceProperties properties, Environment environment,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		Binder binder = Binder.get(environment);
+		HikariDataSource primary = pool("primary", properties.determineUrl(), properties.determineUsername(),
+				properties.determinePassword(), false, binder, meterRegistry);
+
+		List<Replica> replicaProperties = binder.bind("app.datasource.replicas", Bindable.listOf(Replica.class))
+				.orElse(List.of());
+		List<HikariDataSource> replicas = new ArrayList<>();
+		for (int i = 0; i < replicaProperties.size(); i++) {
+			Replica replica = replicaProperties.get(i);
+			replicas.add(pool("replica-" + i, replica.getUrl(), replica.getUsername(), replica.getPassword(), true,
+					binder, meterRegistry));
+		}
+		routingDataSource = new ReadWriteRoutingDataSource(primary, replicas);
+		routingDataSource.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+
+	@Bean
+	public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+			@Value("${app.datasource.sticky-window:5s}") Duration stickyWindow) {
+		FilterRegistrationBean<ReadYourWritesFilter> registration =
+				new FilterRegistrationBean<>(new ReadYourWritesFilter(stickyWindow));
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 3);
+		return registration;
+	}
+
+	private static HikariDataSource pool(String name, String url, String username, String password,
+			boolean readOnly, Binder binder, ObjectProvider<MeterRegistry> meterRegistry) {
+		HikariDataSource pool = DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.url(url)
+				.username(username)
+				.password(password)
+				.build();
+		binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+		pool.setPoolName(name);
+		pool.setReadOnly(readOnly);
+		meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+		return pool;
+	}
+
+	@Override
+	public void destroy() {
+		if (routingDataSource != null) {
+			routingDataSource.close();
+		}
+	}
+
+	public static class Replica {
+
+		private String url;
+		private String username;
+		private String password;
+
+		public String getUrl() {
+			return url;
+		}
+
+		public void setUrl(String url) {
+			this.url = url;
+		}
+
+		public String getUsername() {
+			return username;
+		}
+
+		public void setUsername(String username) {
+			this.username = username;
+		}
+
+		public String getPassword() {
+			return password;
+		}
+
+		public void setPassword(String password) {
+			this.password = password;
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.devsuperior.dscatalog.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.devsuperior.dscatalog.services.PrimaryReads;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Manda transacoes readOnly para as replicas (em rodizio) e o resto para o
+ * primario. So funciona atras de um LazyConnectionDataSourceProxy: o
+ * JpaTransactionManager pede a conexao antes de marcar a transacao como
+ * readOnly, e o proxy adia a escolha ate o primeiro comando SQL. Leituras que
+ * vao para cache (PrimaryReads) tambem ficam no primario.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	static final String PRIMARY = "primary";
+
+	private final List<HikariDataSource> pools = new ArrayList<>();
+	private final List<String> replicaKeys = new ArrayList<>();
+	private final AtomicInteger next = new AtomicInteger();
+
+	public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas) {
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		pools.add(primary);
+		for (int i = 0; i < replicas.size(); i++) {
+			String key = "replica-" + i;
+			targets.put(key, replicas.get(i));
+			replicaKeys.add(key);
+			pools.add(replicas.get(i));
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		if (readOnly && !replicaKeys.isEmpty() && !ReadYourWritesFilter.isSticky() && !PrimaryReads.isActive()) {
+			return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+		}
+		if (!readOnly && TransactionSynchronizationManager.isActualTransactionActive()) {
+			ReadYourWritesFilter.markWrite();
+		}
+		return PRIMARY;
+	}
+
+	// Nao e bean: quem cria fecha os pools no desligamento
+	public void close() {
+		pools.forEach(HikariDataSource::close);
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.devsuperior.dscatalog.config;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Ler as proprias escritas com replicas atrasadas: quando uma requisicao abre
+ * uma transacao de escrita, a resposta leva um cookie com o prazo ate quando as
+ * leituras daquele cliente devem ir ao primario. Enquanto o cookie vale, o
+ * ReadWriteRoutingDataSource ignora as replicas para aquele cliente.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	public static final String COOKIE = "dscatalog-primary-until";
+
+	private static final ThreadLocal<State> CURRENT = new ThreadLocal<>();
+
+	private final Duration window;
+
+	public ReadYourWritesFilter(Duration window) {
+		this.window = window;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		CURRENT.set(new State(response, window, hasValidCookie(request)));
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			CURRENT.remove();
+		}
+	}
+
+	static boolean isSticky() {
+		State state = CURRENT.get();
+		return state != null && state.sticky;
+	}
+
+	// A escrita acontece no servico, antes do corpo da resposta, entao o cookie ainda entra
+	static void markWrite() {
+		State state = CURRENT.get();
+		if (state == null || state.cookieSent) {
+			return;
+		}
+		state.sticky = true;
+		state.cookieSent = true;
+		if (!state.response.isCommitted()) {
+			Cookie cookie = new Cookie(COOKIE, String.valueOf(System.currentTimeMillis() + state.window.toMillis()));
+			cookie.setMaxAge((int) Math.max(1, state.window.getSeconds()));
+			cookie.setPath("/");
+			cookie.setHttpOnly(true);
+			state.response.addCookie(cookie);
+		}
+	}
+
+	private static boolean hasValidCookie(HttpServletRequest request) {
+		Cookie[] cookies = request.getCookies();
+		if (cookies == null) {
+			return false;
+		}
+		for (Cookie cookie : cookies) {
+			if (COOKIE.equals(cookie.getName())) {
+				try {
+					return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+				}
+				catch (NumberFormatException e) {
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static class State {
+		private final HttpServletResponse response;
+		private final Duration window;
+		private boolean sticky;
+		private boolean cookieSent;
+
+		State(HttpServletResponse response, Duration window, boolean sticky) {
+			this.response = response;
+			this.window = window;
+			this.sticky = sticky;
+		}
+	}
+
+}
@@ -0,0 +1,180 @@
+package com.devsuperior.dscatalog.config;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTags;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Complementa o http.server.requests do Actuator com o tamanho da resposta e
+ * com o que o Hibernate fez em cada requisicao (comandos SQL, entidades
+ * carregadas e colecoes inicializadas). As tags sao as mesmas do
+ * http.server.requests, entao uri e o padrao do mapeamento, nao a URL.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+	private final MeterRegistry registry;
+
+	public RequestMetricsFilter(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		CountingResponse counting = new CountingResponse(response);
+		HibernateRequestStats.Counts counts = HibernateRequestStats.start();
+		try {
+			filterChain.doFilter(request, counting);
+		}
+		finally {
+			HibernateRequestStats.stop(counts);
+			Tags tags = Tags.of(WebMvcTags.method(request), WebMvcTags.uri(request, response),
+					WebMvcTags.status(response));
+			recordHibernate(tags, counts);
+			if (request.isAsyncStarted()) {
+				// Respostas assincronas (exportacao) terminam de ser escritas depois do filtro
+				request.getAsyncContext().addListener(new AsyncListener() {
+					@Override
+					public void onComplete(AsyncEvent event) {
+						recordSize(Tags.of(WebMvcTags.method(request), WebMvcTags.uri(request, response),
+								WebMvcTags.status(response)), counting);
+					}
+
+					@Override
+					public void onTimeout(AsyncEvent event) {
+					}
+
+					@Override
+					public void onError(AsyncEvent event) {
+					}
+
+					@Override
+					public void onStartAsync(AsyncEvent event) {
+					}
+				});
+			}
+			else {
+				recordSize(tags, counting);
+			}
+		}
+	}
+
+	private void recordSize(Tags tags, CountingResponse counting) {
+		DistributionSummary.builder("http.server.response.size")
+				.description("Response body size")
+				.baseUnit("bytes")
+				.tags(tags)
+				.register(registry)
+				.record(counting.count);
+	}
+
+	private void recordHibernate(Tags tags, HibernateRequestStats.Counts counts) {
+		summary("hibernate.request.statements", "SQL statements per request", tags).record(counts.getStatements());
+		summary("hibernate.request.entity.loads", "Entities loaded per request", tags).record(counts.getEntityLoads());
+		summary("hibernate.request.collection.fetches", "Collections initialized per request", tags)
+				.record(counts.getCollectionFetches());
+	}
+
+	private DistributionSummary summary(String name, String description, Tags tags) {
+		return DistributionSummary.builder(name)
+				.description(description)
+				.tags(tags)
+				.register(registry);
+	}
+
+	// Conta os bytes do corpo sem guardar a resposta, para nao atrapalhar o streaming
+	private static class CountingResponse extends HttpServletResponseWrapper {
+		private volatile long count;
+		private ServletOutputStream outputStream;
+		private PrintWriter writer;
+
+		CountingResponse(HttpServletResponse response) {
+			super(response);
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (outputStream == null) {
+				ServletOutputStream delegate = super.getOutputStream();
+				outputStream = new ServletOutputStream() {
+					@Override
+					public void write(int b) throws IOException {
+						delegate.write(b);
+						count++;
+					}
+
+					@Override
+					public void write(byte[] b, int off, int len) throws IOException {
+						delegate.write(b, off, len);
+						count += len;
+					}
+
+					@Override
+					public void flush() throws IOException {
+						delegate.flush();
+					}
+
+					@Override
+					public void close() throws IOException {
+						delegate.close();
+					}
+
+					@Override
+					public boolean isReady() {
+						return delegate.isReady();
+					}
+
+					@Override
+					public void setWriteListener(WriteListener listener) {
+						delegate.setWriteListener(listener);
+					}
+				};
+			}
+			return outputStream;
+		}
+
+		// Pelo writer conta caracteres, o que so difere dos bytes fora do ASCII
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (writer == null) {
+				Writer delegate = super.getWriter();
+				writer = new PrintWriter(new Writer() {
+					@Override
+					public void write(char[] cbuf, int off, int len) throws IOException {
+						delegate.write(cbuf, off, len);
+						count += len;
+					}
+
+					@Override
+					public void flush() throws IOException {
+						delegate.flush();
+					}
+
+					@Override
+					public void close() throws IOException {
+						delegate.close();
+					}
+				});
+			}
+			return writer;
+		}
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.devsuperior.dscatalog.config;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+/**
+ * JCacheRegionFactory com um CacheManager por SessionFactory. O provider JCache
+ * guarda um unico CacheManager por URI na JVM e o Hibernate fecha o seu ao
+ * desligar: com a URI do ehcache.xml, um segundo contexto na mesma JVM (testes,
+ * restart do devtools) dividiria as regioes com o primeiro e as fecharia junto.
+ */
+public class SecondLevelCacheRegionFactory extends JCacheRegionFactory {
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map properties) {
+		CachingProvider provider = getCachingProvider(properties);
+		if (!(provider instanceof EhcacheCachingProvider)) {
+			throw new CacheException("Second-level cache needs the Ehcache JCache provider, found " + provider);
+		}
+		try {
+			XmlConfiguration configuration = new XmlConfiguration(getUri(settings, properties).toURL(), getClassLoader(provider));
+			URI name = URI.create("urn:dscatalog:second-level-cache:" + UUID.randomUUID());
+			return ((EhcacheCachingProvider) provider).getCacheManager(name, configuration);
+		}
+		catch (MalformedURLException e) {
+			throw new CacheException("Invalid second-level cache configuration URI", e);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.devsuperior.dscatalog.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import com.devsuperior.dscatalog.services.SlowQueryLog;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Mede cada metodo publico dos @Service (metrica service.method, com tags
+ * class, method e exception). O ReactiveCatalogService fica de fora: os
+ * metodos dele so montam o Flux/Mono e o trabalho acontece depois. Tambem
+ * informa ao SlowQueryLog qual metodo de servico esta rodando na thread.
+ * Roda por fora do @Transactional, entao o tempo inclui o commit.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+	private final MeterRegistry registry;
+
+	public ServiceMetricsAspect(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Around("within(com.devsuperior.dscatalog.services..*) "
+			+ "&& @within(org.springframework.stereotype.Service) "
+			+ "&& !within(com.devsuperior.dscatalog.services.ReactiveCatalogService)")
+	public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+		String className = joinPoint.getSignature().getDeclaringType().getSimpleName();
+		String methodName = joinPoint.getSignature().getName();
+		String previous = SlowQueryLog.enterServiceMethod(className + "." + methodName);
+		Timer.Sample sample = Timer.start(registry);
+		String exception = "none";
+		try {
+			return joinPoint.proceed();
+		}
+		catch (Throwable e) {
+			exception = e.getClass().getSimpleName();
+			throw e;
+		}
+		finally {
+			sample.stop(Timer.builder("service.method")
+					.description("Service method execution time")
+					.tag("class", className)
+					.tag("method", methodName)
+					.tag("exception", exception)
+					.register(registry));
+			SlowQueryLog.exitServiceMethod(previous);
+		}
+	}
+
+}
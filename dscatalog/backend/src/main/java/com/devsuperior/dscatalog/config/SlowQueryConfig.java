@@ -0,0 +1,50 @@
+package com.devsuperior.dscatalog.config;
+
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.devsuperior.dscatalog.services.SlowQueryLog;
+
+/**
+ * Envolve o DataSource no proxy que mede cada comando SQL. Desligado por
+ * padrao: so com app.slow-query.enabled=true o DataSource ganha o proxy.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.slow-query.enabled", havingValue = "true")
+public class SlowQueryConfig {
+
+	// static: BeanPostProcessor precisa existir antes dos outros beans da configuracao
+	@Bean
+	public static BeanPostProcessor timedDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+		Supplier<SlowQueryLog> lazyLog = new Supplier<>() {
+			private volatile SlowQueryLog instance;
+
+			@Override
+			public SlowQueryLog get() {
+				SlowQueryLog result = instance;
+				if (result == null) {
+					result = slowQueryLog.getObject();
+					instance = result;
+				}
+				return result;
+			}
+		};
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource) {
+					return TimedDataSource.wrap((DataSource) bean, lazyLog);
+				}
+				return bean;
+			}
+		};
+	}
+
+}
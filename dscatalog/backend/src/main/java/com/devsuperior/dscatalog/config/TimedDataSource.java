@@ -0,0 +1,148 @@
+package com.devsuperior.dscatalog.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import com.devsuperior.dscatalog.services.SlowQueryLog;
+
+/**
+ * Proxy JDBC (java.lang.reflect.Proxy) que mede cada comando e entrega os
+ * lentos ao SlowQueryLog. Guarda os parametros de cada PreparedStatement e
+ * conta as linhas lidas do ResultSet; o tempo de um SELECT vai da execucao ate
+ * o fechamento do ResultSet, entao inclui a leitura das linhas.
+ */
+final class TimedDataSource {
+
+	private TimedDataSource() {
+	}
+
+	// O SlowQueryLog e resolvido so no primeiro uso: o DataSource e criado antes dele
+	static DataSource wrap(DataSource target, Supplier<SlowQueryLog> slowQueryLog) {
+		return proxy(DataSource.class, target, (proxy, method, args) -> {
+			Object result = invoke(target, method, args);
+			if (result instanceof Connection) {
+				return wrapConnection((Connection) result, slowQueryLog);
+			}
+			return result;
+		});
+	}
+
+	private static Connection wrapConnection(Connection target, Supplier<SlowQueryLog> slowQueryLog) {
+		return proxy(Connection.class, target, (proxy, method, args) -> {
+			Object result = invoke(target, method, args);
+			String name = method.getName();
+			if (result instanceof CallableStatement) {
+				return wrapStatement(CallableStatement.class, (Statement) result, (String) args[0], target, slowQueryLog);
+			}
+			if (result instanceof PreparedStatement) {
+				return wrapStatement(PreparedStatement.class, (Statement) result, (String) args[0], target, slowQueryLog);
+			}
+			if (result instanceof Statement && name.equals("createStatement")) {
+				return wrapStatement(Statement.class, (Statement) result, null, target, slowQueryLog);
+			}
+			return result;
+		});
+	}
+
+	private static <T extends Statement> T wrapStatement(Class<T> type, Statement target, String preparedSql,
+			Connection connection, Supplier<SlowQueryLog> slowQueryLog) {
+		Map<Integer, Object> parameters = new TreeMap<>();
+		int[] batchSize = new int[1];
+		return proxy(type, target, (proxy, method, args) -> {
+			String name = method.getName();
+			if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+				parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+				return invoke(target, method, args);
+			}
+			if (name.equals("clearParameters")) {
+				parameters.clear();
+			}
+			else if (name.equals("addBatch")) {
+				batchSize[0]++;
+			}
+			else if (name.equals("clearBatch")) {
+				batchSize[0] = 0;
+			}
+			if (!name.startsWith("execute")) {
+				return invoke(target, method, args);
+			}
+
+			String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+			List<Object> values = new ArrayList<>(parameters.values());
+			long start = System.nanoTime();
+			Object result = invoke(target, method, args);
+			if (result instanceof ResultSet) {
+				return wrapResultSet((ResultSet) result, sql, values, start, connection, slowQueryLog);
+			}
+			long elapsed = System.nanoTime() - start;
+			long rows = rows(result);
+			if (name.equals("executeBatch")) {
+				sql = "/* batch of " + batchSize[0] + " */ " + sql;
+				batchSize[0] = 0;
+			}
+			slowQueryLog.get().record(sql, values, elapsed, rows, connection);
+			return result;
+		});
+	}
+
+	private static ResultSet wrapResultSet(ResultSet target, String sql, List<Object> parameters, long start,
+			Connection connection, Supplier<SlowQueryLog> slowQueryLog) {
+		long[] rows = new long[1];
+		boolean[] recorded = new boolean[1];
+		return proxy(ResultSet.class, target, (proxy, method, args) -> {
+			Object result = invoke(target, method, args);
+			String name = method.getName();
+			if (name.equals("next") && Boolean.TRUE.equals(result)) {
+				rows[0]++;
+			}
+			else if (name.equals("close") && !recorded[0]) {
+				recorded[0] = true;
+				slowQueryLog.get().record(sql, parameters, System.nanoTime() - start, rows[0], connection);
+			}
+			return result;
+		});
+	}
+
+	private static long rows(Object result) {
+		if (result instanceof Integer || result instanceof Long) {
+			return ((Number) result).longValue();
+		}
+		if (result instanceof int[]) {
+			long sum = 0;
+			for (int count : (int[]) result) {
+				sum += Math.max(count, 0);
+			}
+			return sum;
+		}
+		return -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(TimedDataSource.class.getClassLoader(), new Class<?>[] {type}, handler);
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+}
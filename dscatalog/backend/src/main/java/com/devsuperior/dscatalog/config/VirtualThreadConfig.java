@@ -0,0 +1,55 @@
+package com.devsuperior.dscatalog.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Com app.threads.virtual=true o Tomcat atende cada requisicao numa thread
+ * virtual, e os servicos @Transactional rodam nessa mesma thread. Exige Java 21
+ * ou mais novo em tempo de execucao. O executor e obtido por reflexao porque o
+ * projeto continua compilando para Java 11.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService virtualThreadExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			ExecutorService executor = (ExecutorService) factory.invoke(null);
+			log.info("Requests will run on virtual threads (Java {})", Runtime.version().feature());
+			return executor;
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("app.threads.virtual=true requires Java 21 or newer, running on Java "
+					+ Runtime.version().feature(), e);
+		}
+	}
+
+	// Substitui o pool de threads do conector; server.tomcat.threads.max deixa de valer
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+		return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+	}
+
+	// Requisicoes assincronas, como a exportacao do catalogo, tambem usam threads virtuais
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.setTaskExecutor(new TaskExecutorAdapter(virtualThreadExecutor()));
+	}
+
+}
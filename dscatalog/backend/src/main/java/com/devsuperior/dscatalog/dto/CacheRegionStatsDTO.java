@@ -0,0 +1,67 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+
+import org.hibernate.stat.CacheRegionStatistics;
+
+public class CacheRegionStatsDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private String name;
+	private Long hitCount;
+	private Long missCount;
+	private Long putCount;
+	private Long elementCountInMemory;
+
+	public CacheRegionStatsDTO() {
+	}
+
+	public CacheRegionStatsDTO(String name, CacheRegionStatistics stats) {
+		this.name = name;
+		this.hitCount = stats.getHitCount();
+		this.missCount = stats.getMissCount();
+		this.putCount = stats.getPutCount();
+		this.elementCountInMemory = stats.getElementCountInMemory();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Long getHitCount() {
+		return hitCount;
+	}
+
+	public void setHitCount(Long hitCount) {
+		this.hitCount = hitCount;
+	}
+
+	public Long getMissCount() {
+		return missCount;
+	}
+
+	public void setMissCount(Long missCount) {
+		this.missCount = missCount;
+	}
+
+	public Long getPutCount() {
+		return putCount;
+	}
+
+	public void setPutCount(Long putCount) {
+		this.putCount = putCount;
+	}
+
+	public Long getElementCountInMemory() {
+		return elementCountInMemory;
+	}
+
+	public void setElementCountInMemory(Long elementCountInMemory) {
+		this.elementCountInMemory = elementCountInMemory;
+	}
+
+}
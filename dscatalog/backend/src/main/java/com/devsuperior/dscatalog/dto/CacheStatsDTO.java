@@ -0,0 +1,64 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+
+public class CacheStatsDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private String name;
+	private Long size;
+	private Long hitCount;
+	private Long missCount;
+	private Double hitRatio;
+	private Long evictionCount;
+	private Long loadCount;
+	private Double averageLoadMillis;
+
+	public CacheStatsDTO() {
+	}
+
+	public CacheStatsDTO(String name, Long size, Long hitCount, Long missCount, Double hitRatio,
+			Long evictionCount, Long loadCount, Double averageLoadMillis) {
+		this.name = name;
+		this.size = size;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.hitRatio = hitRatio;
+		this.evictionCount = evictionCount;
+		this.loadCount = loadCount;
+		this.averageLoadMillis = averageLoadMillis;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Long getSize() {
+		return size;
+	}
+
+	public Long getHitCount() {
+		return hitCount;
+	}
+
+	public Long getMissCount() {
+		return missCount;
+	}
+
+	public Double getHitRatio() {
+		return hitRatio;
+	}
+
+	public Long getEvictionCount() {
+		return evictionCount;
+	}
+
+	public Long getLoadCount() {
+		return loadCount;
+	}
+
+	public Double getAverageLoadMillis() {
+		return averageLoadMillis;
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.devsuperior.dscatalog.entities.CategoryStats;
+
+public class CategoryStatsDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long categoryId;
+	private Long productCount;
+	private Double minPrice;
+	private Double maxPrice;
+	private Double avgPrice;
+	private Instant latestDate;
+
+	public CategoryStatsDTO() {
+	}
+
+	public CategoryStatsDTO(CategoryStats entity) {
+		this.categoryId = entity.getCategoryId();
+		this.productCount = entity.getProductCount();
+		this.minPrice = entity.getMinPrice();
+		this.maxPrice = entity.getMaxPrice();
+		this.avgPrice = entity.getAvgPrice();
+		this.latestDate = entity.getLatestDate();
+	}
+
+	public Long getCategoryId() {
+		return categoryId;
+	}
+
+	public void setCategoryId(Long categoryId) {
+		this.categoryId = categoryId;
+	}
+
+	public Long getProductCount() {
+		return productCount;
+	}
+
+	public void setProductCount(Long productCount) {
+		this.productCount = productCount;
+	}
+
+	public Double getMinPrice() {
+		return minPrice;
+	}
+
+	public void setMinPrice(Double minPrice) {
+		this.minPrice = minPrice;
+	}
+
+	public Double getMaxPrice() {
+		return maxPrice;
+	}
+
+	public void setMaxPrice(Double maxPrice) {
+		this.maxPrice = maxPrice;
+	}
+
+	public Double getAvgPrice() {
+		return avgPrice;
+	}
+
+	public void setAvgPrice(Double avgPrice) {
+		this.avgPrice = avgPrice;
+	}
+
+	public Instant getLatestDate() {
+		return latestDate;
+	}
+
+	public void setLatestDate(Instant latestDate) {
+		this.latestDate = latestDate;
+	}
+
+}
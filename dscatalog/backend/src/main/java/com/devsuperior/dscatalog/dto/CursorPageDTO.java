@@ -0,0 +1,53 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CursorPageDTO<T> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private List<T> content = new ArrayList<>();
+	private Integer size;
+	
+	// Token opaco para a proxima pagina, nulo quando nao ha mais registros
+	private String next;
+
+	public CursorPageDTO() {
+	}
+
+	public CursorPageDTO(List<T> content, Integer size, String next) {
+		this.content = content;
+		this.size = size;
+		this.next = next;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public void setSize(Integer size) {
+		this.size = size;
+	}
+
+	public String getNext() {
+		return next;
+	}
+
+	public void setNext(String next) {
+		this.next = next;
+	}
+
+	public boolean isLast() {
+		return next == null;
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+// Intervalo de datas [from, to); limite nulo significa intervalo aberto
+public class DateBucketDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Instant from;
+	private Instant to;
+	private Long count;
+
+	public DateBucketDTO() {
+	}
+
+	public DateBucketDTO(Instant from, Instant to, Long count) {
+		this.from = from;
+		this.to = to;
+		this.count = count;
+	}
+
+	public Instant getFrom() {
+		return from;
+	}
+
+	public void setFrom(Instant from) {
+		this.from = from;
+	}
+
+	public Instant getTo() {
+		return to;
+	}
+
+	public void setTo(Instant to) {
+		this.to = to;
+	}
+
+	public Long getCount() {
+		return count;
+	}
+
+	public void setCount(Long count) {
+		this.count = count;
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+
+import org.springframework.data.domain.Page;
+
+public class FacetedPageDTO<T> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Page<T> page;
+	private ProductFacetsDTO facets;
+
+	public FacetedPageDTO() {
+	}
+
+	public FacetedPageDTO(Page<T> page, ProductFacetsDTO facets) {
+		this.page = page;
+		this.facets = facets;
+	}
+
+	public Page<T> getPage() {
+		return page;
+	}
+
+	public void setPage(Page<T> page) {
+		this.page = page;
+	}
+
+	public ProductFacetsDTO getFacets() {
+		return facets;
+	}
+
+	public void setFacets(ProductFacetsDTO facets) {
+		this.facets = facets;
+	}
+
+}
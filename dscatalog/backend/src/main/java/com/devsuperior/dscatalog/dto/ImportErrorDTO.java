@@ -0,0 +1,33 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportErrorDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long row;
+	private List<String> messages = new ArrayList<>();
+
+	public ImportErrorDTO() {
+	}
+
+	public ImportErrorDTO(Long row, List<String> messages) {
+		this.row = row;
+		this.messages = messages;
+	}
+
+	public Long getRow() {
+		return row;
+	}
+
+	public void setRow(Long row) {
+		this.row = row;
+	}
+
+	public List<String> getMessages() {
+		return messages;
+	}
+
+}
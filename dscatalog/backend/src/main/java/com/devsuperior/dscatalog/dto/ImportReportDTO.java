@@ -0,0 +1,51 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReportDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	// Limita o relatorio para a memoria nao crescer com arquivos muito ruins
+	public static final int MAX_REPORTED_ERRORS = 1000;
+
+	private long accepted;
+	private long rejected;
+	private boolean errorsTruncated;
+	private List<ImportErrorDTO> errors = new ArrayList<>();
+
+	public ImportReportDTO() {
+	}
+
+	public long getAccepted() {
+		return accepted;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public boolean isErrorsTruncated() {
+		return errorsTruncated;
+	}
+
+	public List<ImportErrorDTO> getErrors() {
+		return errors;
+	}
+
+	public void addAccepted(int count) {
+		accepted += count;
+	}
+
+	public void addRejected(long row, List<String> messages) {
+		rejected++;
+		if (errors.size() < MAX_REPORTED_ERRORS) {
+			errors.add(new ImportErrorDTO(row, messages));
+		}
+		else {
+			errorsTruncated = true;
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+
+// Faixa de preco [min, max); limite nulo significa faixa aberta
+public class PriceBucketDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Double min;
+	private Double max;
+	private Long count;
+
+	public PriceBucketDTO() {
+	}
+
+	public PriceBucketDTO(Double min, Double max, Long count) {
+		this.min = min;
+		this.max = max;
+		this.count = count;
+	}
+
+	public Double getMin() {
+		return min;
+	}
+
+	public void setMin(Double min) {
+		this.min = min;
+	}
+
+	public Double getMax() {
+		return max;
+	}
+
+	public void setMax(Double max) {
+		this.max = max;
+	}
+
+	public Long getCount() {
+		return count;
+	}
+
+	public void setCount(Long count) {
+		this.count = count;
+	}
+
+}
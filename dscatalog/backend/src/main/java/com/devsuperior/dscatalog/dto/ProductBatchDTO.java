@@ -0,0 +1,30 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+public class ProductBatchDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Valid
+	@NotEmpty(message = "Informe ao menos um produto")
+	@Size(max = 10000, message = "No maximo 10000 produtos por lote")
+	private List<ProductDTO> products = new ArrayList<>();
+
+	public ProductBatchDTO() {
+	}
+
+	public List<ProductDTO> getProducts() {
+		return products;
+	}
+
+	public void setProducts(List<ProductDTO> products) {
+		this.products = products;
+	}
+
+}
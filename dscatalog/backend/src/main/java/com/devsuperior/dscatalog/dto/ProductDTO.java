@@ -33,6 +33,11 @@ public class ProductDTO implements Serializable {
 	@PastOrPresent(message = "A data do produto não pode ser futura")
 	private Instant date;
 
+	// Ultima alteracao do produto, base do ETag
+	private Instant lastModified;
+
+	private long viewCount;
+
 	private List<CategoryDTO> categories = new ArrayList<>();
 
 	// HIBERNATE ONLY
@@ -48,6 +53,14 @@ public class ProductDTO implements Serializable {
 		this.date = date;
 	}
 
+	// Copia independente, inclusive da lista de categorias
+	public ProductDTO(ProductDTO other) {
+		this(other.id, other.name, other.description, other.price, other.imgUrl, other.date);
+		this.lastModified = other.lastModified;
+		this.viewCount = other.viewCount;
+		other.categories.forEach(cat -> this.categories.add(new CategoryDTO(cat.getId(), cat.getName())));
+	}
+
 	public ProductDTO(Product entity) {
 		this.id = entity.getId();
 		this.name = entity.getName();
@@ -55,6 +68,8 @@ public class ProductDTO implements Serializable {
 		this.price = entity.getPrice();
 		this.imgUrl = entity.getImgUrl();
 		this.date = entity.getDate();
+		this.lastModified = entity.getUpdatedAt() != null ? entity.getUpdatedAt() : entity.getCreatedAt();
+		this.viewCount = entity.getViewCount();
 	}
 
 	public ProductDTO(Product entity, Set<Category> categories) {
@@ -110,6 +125,22 @@ public class ProductDTO implements Serializable {
 		this.date = date;
 	}
 
+	public Instant getLastModified() {
+		return lastModified;
+	}
+
+	public void setLastModified(Instant lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	public long getViewCount() {
+		return viewCount;
+	}
+
+	public void setViewCount(long viewCount) {
+		this.viewCount = viewCount;
+	}
+
 	public List<CategoryDTO> getCategories() {
 		return categories;
 	}
@@ -0,0 +1,47 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductFacetsDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long total;
+	private List<PriceBucketDTO> price = new ArrayList<>();
+	private List<DateBucketDTO> date = new ArrayList<>();
+
+	public ProductFacetsDTO() {
+	}
+
+	public ProductFacetsDTO(Long total, List<PriceBucketDTO> price, List<DateBucketDTO> date) {
+		this.total = total;
+		this.price = price;
+		this.date = date;
+	}
+
+	public Long getTotal() {
+		return total;
+	}
+
+	public void setTotal(Long total) {
+		this.total = total;
+	}
+
+	public List<PriceBucketDTO> getPrice() {
+		return price;
+	}
+
+	public void setPrice(List<PriceBucketDTO> price) {
+		this.price = price;
+	}
+
+	public List<DateBucketDTO> getDate() {
+		return date;
+	}
+
+	public void setDate(List<DateBucketDTO> date) {
+		this.date = date;
+	}
+
+}
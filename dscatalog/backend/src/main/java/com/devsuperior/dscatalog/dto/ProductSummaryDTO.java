@@ -0,0 +1,70 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Versao enxuta do produto para telas de listagem: sem descricao e sem
+ * categorias. E montada direto na consulta, sem passar por entidade.
+ */
+public class ProductSummaryDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long id;
+	private String name;
+	private Double price;
+	private String imgUrl;
+	private Instant date;
+
+	public ProductSummaryDTO() {
+	}
+
+	public ProductSummaryDTO(Long id, String name, Double price, String imgUrl, Instant date) {
+		this.id = id;
+		this.name = name;
+		this.price = price;
+		this.imgUrl = imgUrl;
+		this.date = date;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Double getPrice() {
+		return price;
+	}
+
+	public void setPrice(Double price) {
+		this.price = price;
+	}
+
+	public String getImgUrl() {
+		return imgUrl;
+	}
+
+	public void setImgUrl(String imgUrl) {
+		this.imgUrl = imgUrl;
+	}
+
+	public Instant getDate() {
+		return date;
+	}
+
+	public void setDate(Instant date) {
+		this.date = date;
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+public class SlowQueryDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private String sql;
+	private List<String> parameters;
+	private Long durationMillis;
+	private Long rows;
+	private String request;
+	private String serviceMethod;
+	private String plan;
+	private Instant moment;
+
+	public SlowQueryDTO() {
+	}
+
+	public SlowQueryDTO(String sql, List<String> parameters, Long durationMillis, Long rows, String request,
+			String serviceMethod, String plan, Instant moment) {
+		this.sql = sql;
+		this.parameters = parameters;
+		this.durationMillis = durationMillis;
+		this.rows = rows;
+		this.request = request;
+		this.serviceMethod = serviceMethod;
+		this.plan = plan;
+		this.moment = moment;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public List<String> getParameters() {
+		return parameters;
+	}
+
+	public Long getDurationMillis() {
+		return durationMillis;
+	}
+
+	// -1 quando o driver nao informa (execute com resultado)
+	public Long getRows() {
+		return rows;
+	}
+
+	public String getRequest() {
+		return request;
+	}
+
+	public String getServiceMethod() {
+		return serviceMethod;
+	}
+
+	public String getPlan() {
+		return plan;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+
+}
@@ -15,9 +15,14 @@ import javax.persistence.ManyToMany;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "tb_category")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference-data")
 public class Category implements Serializable {
 	private static final long serialVersionUID = 1L;
 
@@ -32,6 +37,11 @@ public class Category implements Serializable {
 
 	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
 	private Instant updatedAt;
+
+	// Incrementada pelo Hibernate a cada alteracao, inclusive duas no mesmo milissegundo
+	@Version
+	@Column(columnDefinition = "BIGINT DEFAULT 0")
+	private Long version;
 	
 	@ManyToMany(mappedBy = "categories")
 	private Set<Product> products = new HashSet<>();
@@ -68,6 +78,10 @@ public class Category implements Serializable {
 	public Instant getUpdatedAt() {
 		return updatedAt;
 	}
+
+	public Long getVersion() {
+		return version;
+	}
 	
 	@PrePersist
 	public void prePersist() {
@@ -0,0 +1,152 @@
+package com.devsuperior.dscatalog.entities;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Agregados de produtos de uma categoria, mantidos a cada escrita de produto.
+ * Guarda a soma dos precos em vez da media para que inclusoes e remocoes sejam
+ * so somas e subtracoes. A soma e decimal (NUMERIC): com double, cada inclusao
+ * seguida da remocao do mesmo preco deixaria um residuo de arredondamento.
+ */
+@Entity
+@Table(name = "tb_category_stats")
+public class CategoryStats implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	public static final int PRICE_SCALE = 4;
+
+	@Id
+	private Long categoryId;
+	private long productCount;
+	@Column(precision = 19, scale = PRICE_SCALE)
+	private BigDecimal priceSum = BigDecimal.ZERO;
+	private Double minPrice;
+	private Double maxPrice;
+
+	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+	private Instant latestDate;
+
+	public CategoryStats() {
+	}
+
+	public CategoryStats(Long categoryId) {
+		this.categoryId = categoryId;
+	}
+
+	public Long getCategoryId() {
+		return categoryId;
+	}
+
+	public long getProductCount() {
+		return productCount;
+	}
+
+	public BigDecimal getPriceSum() {
+		return priceSum;
+	}
+
+	public Double getMinPrice() {
+		return minPrice;
+	}
+
+	public Double getMaxPrice() {
+		return maxPrice;
+	}
+
+	public Instant getLatestDate() {
+		return latestDate;
+	}
+
+	public Double getAvgPrice() {
+		return productCount == 0 ? null
+				: priceSum.divide(BigDecimal.valueOf(productCount), PRICE_SCALE, RoundingMode.HALF_EVEN).doubleValue();
+	}
+
+	public void add(Double price, Instant date) {
+		productCount++;
+		if (price != null) {
+			priceSum = priceSum.add(toDecimal(price));
+			minPrice = (minPrice == null || price < minPrice) ? price : minPrice;
+			maxPrice = (maxPrice == null || price > maxPrice) ? price : maxPrice;
+		}
+		if (date != null && (latestDate == null || date.isAfter(latestDate))) {
+			latestDate = date;
+		}
+	}
+
+	// Soma os agregados de outro objeto, usado nas insercoes em lote
+	public void merge(CategoryStats other) {
+		productCount += other.productCount;
+		priceSum = priceSum.add(other.priceSum);
+		if (other.minPrice != null && (minPrice == null || other.minPrice < minPrice)) {
+			minPrice = other.minPrice;
+		}
+		if (other.maxPrice != null && (maxPrice == null || other.maxPrice > maxPrice)) {
+			maxPrice = other.maxPrice;
+		}
+		if (other.latestDate != null && (latestDate == null || other.latestDate.isAfter(latestDate))) {
+			latestDate = other.latestDate;
+		}
+	}
+
+	/**
+	 * Tira um produto dos agregados. Quando o produto era o minimo, o maximo ou o
+	 * mais recente, nao da para saber o novo valor sem consultar os produtos:
+	 * nesse caso nada e alterado e o metodo devolve false.
+	 */
+	public boolean remove(Double price, Instant date) {
+		if (productCount <= 1) {
+			reset(0L, BigDecimal.ZERO, null, null, null);
+			return true;
+		}
+		if ((price != null && (price.equals(minPrice) || price.equals(maxPrice)))
+				|| (date != null && date.equals(latestDate))) {
+			return false;
+		}
+		productCount--;
+		if (price != null) {
+			priceSum = priceSum.subtract(toDecimal(price));
+		}
+		return true;
+	}
+
+	public void reset(long productCount, BigDecimal priceSum, Double minPrice, Double maxPrice, Instant latestDate) {
+		this.productCount = productCount;
+		this.priceSum = priceSum.setScale(PRICE_SCALE, RoundingMode.HALF_EVEN);
+		this.minPrice = minPrice;
+		this.maxPrice = maxPrice;
+		this.latestDate = latestDate;
+	}
+
+	// Os precos dos produtos sao double; a conversao usa a representacao decimal mais curta
+	public static BigDecimal toDecimal(Double price) {
+		return BigDecimal.valueOf(price).setScale(PRICE_SCALE, RoundingMode.HALF_EVEN);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(categoryId);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CategoryStats other = (CategoryStats) obj;
+		return Objects.equals(categoryId, other.categoryId);
+	}
+
+}
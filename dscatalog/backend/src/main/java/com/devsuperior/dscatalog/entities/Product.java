@@ -14,15 +14,24 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
 @Table(name = "tb_product")
 public class Product implements Serializable {
 	private static final long serialVersionUID = 1L;
 
+	// Sequence com pooled-lo para o Hibernate agrupar os INSERTs em lotes JDBC,
+	// o que nao acontece com IDENTITY
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+	@SequenceGenerator(name = "product_seq", sequenceName = "seq_product", allocationSize = 50)
 	private Long id;
 	private String name;
 	
@@ -34,6 +43,18 @@ public class Product implements Serializable {
 	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
 	private Instant date;
 
+	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+	private Instant createdAt;
+
+	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+	private Instant updatedAt;
+
+	// Somado em lote pelo ProductViewCounter; o Hibernate so le, para um save nao sobrescrever a contagem
+	@Column(insertable = false, updatable = false, columnDefinition = "BIGINT DEFAULT 0")
+	private long viewCount;
+
+	// Guarda so os ids das categorias; as categorias vem da regiao reference-data
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product-categories")
 	@ManyToMany
 	@JoinTable(name = "tb_product_category",
 		joinColumns = @JoinColumn(name = "product_id"),
@@ -104,6 +125,32 @@ public class Product implements Serializable {
 		return categories;
 	}
 
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Instant updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	public long getViewCount() {
+		return viewCount;
+	}
+	
+	@PrePersist
+	public void prePersist() {
+		createdAt = Instant.now();
+	}
+	
+	@PreUpdate
+	public void preUpdate() {
+		updatedAt = Instant.now();
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(id);
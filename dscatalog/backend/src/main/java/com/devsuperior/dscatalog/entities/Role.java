@@ -9,8 +9,12 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
 @Table(name = "tb_role")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference-data")
 public class Role implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
@@ -7,22 +7,26 @@ import java.util.Set;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
 @Table(name = "tb_user")
 public class User implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+	@SequenceGenerator(name = "user_seq", sequenceName = "seq_user", allocationSize = 50)
 	private Long id;
 	private String firstName;
 	private String lastName;
@@ -31,7 +35,9 @@ public class User implements Serializable {
 	private String email;
 	private String password;
 
-	@ManyToMany(fetch = FetchType.EAGER)
+	// LAZY: listagens e o login buscam os perfis explicitamente quando precisam
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-roles")
+	@ManyToMany
 	@JoinTable(name = "tb_user_role",
 		joinColumns = @JoinColumn(name = "user_id"),
 		inverseJoinColumns = @JoinColumn(name = "role_id"))
@@ -0,0 +1,23 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.time.Instant;
+
+/**
+ * Agregados de produtos de uma categoria calculados direto no banco, usados
+ * para reconstruir a tabela de estatisticas.
+ */
+public interface CategoryAggregate {
+
+	Long getCategoryId();
+
+	Long getProductCount();
+
+	Double getPriceSum();
+
+	Double getMinPrice();
+
+	Double getMaxPrice();
+
+	Instant getLatestDate();
+
+}
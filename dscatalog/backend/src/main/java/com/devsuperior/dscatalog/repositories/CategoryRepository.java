@@ -1,6 +1,16 @@
 package com.devsuperior.dscatalog.repositories;
 
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.devsuperior.dscatalog.entities.Category;
@@ -8,4 +18,24 @@ import com.devsuperior.dscatalog.entities.Category;
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long>{
 
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT obj FROM Category obj WHERE obj.id = :id")
+	Optional<Category> findForUpdate(Long id);
+
+	// Cache de consulta: invalidado pelo Hibernate a cada escrita em tb_category
+	@Override
+	@QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
+	List<Category> findAll();
+
+	@Override
+	@QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
+	List<Category> findAllById(Iterable<Long> ids);
+
+	@Query("SELECT obj FROM Category obj ORDER BY obj.name, obj.id")
+	List<Category> findAllOrderByName(Pageable pageable);
+
+	@Query("SELECT obj FROM Category obj WHERE obj.name > :name OR (obj.name = :name AND obj.id > :id) "
+			+ "ORDER BY obj.name, obj.id")
+	List<Category> findAllOrderByNameAfter(String name, Long id, Pageable pageable);
+
 }
@@ -0,0 +1,33 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.devsuperior.dscatalog.entities.CategoryStats;
+
+@Repository
+public interface CategoryStatsRepository extends JpaRepository<CategoryStats, Long>{
+
+	// SELECT ... FOR UPDATE: escritas concorrentes na mesma categoria ficam em fila
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT obj FROM CategoryStats obj WHERE obj.categoryId = :categoryId")
+	Optional<CategoryStats> findForUpdate(Long categoryId);
+
+	String AGGREGATE = "SELECT cat.id AS categoryId, COUNT(p) AS productCount, SUM(p.price) AS priceSum, "
+			+ "MIN(p.price) AS minPrice, MAX(p.price) AS maxPrice, MAX(p.date) AS latestDate "
+			+ "FROM Product p INNER JOIN p.categories cat ";
+
+	@Query(AGGREGATE + "WHERE cat.id = :categoryId GROUP BY cat.id")
+	Optional<CategoryAggregate> aggregate(Long categoryId);
+
+	@Query(AGGREGATE + "GROUP BY cat.id")
+	List<CategoryAggregate> aggregateAll();
+
+}
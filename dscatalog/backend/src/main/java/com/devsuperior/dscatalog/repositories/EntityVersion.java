@@ -0,0 +1,25 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.time.Instant;
+
+/**
+ * Projecao so com as colunas de auditoria, usada para validar ETags sem
+ * carregar a entidade.
+ */
+public interface EntityVersion {
+
+	Long getId();
+
+	Instant getCreatedAt();
+
+	Instant getUpdatedAt();
+
+	default String getTag() {
+		return tag(getId(), getUpdatedAt() != null ? getUpdatedAt() : getCreatedAt());
+	}
+
+	static String tag(Long id, Instant lastModified) {
+		return id + "-" + (lastModified == null ? 0L : lastModified.toEpochMilli());
+	}
+
+}
@@ -0,0 +1,13 @@
+package com.devsuperior.dscatalog.repositories;
+
+/**
+ * Par produto/categoria lido direto da tabela de associacao, sem carregar as
+ * entidades.
+ */
+public interface ProductCategoryLink {
+
+	Long getProductId();
+
+	Long getCategoryId();
+
+}
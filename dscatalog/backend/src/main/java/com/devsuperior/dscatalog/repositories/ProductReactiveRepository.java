@@ -0,0 +1,104 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Leituras de produto pelo driver reativo (R2DBC), em SQL. Cada linha traz um
+ * par produto/categoria; as linhas vem ordenadas por produto e sao agrupadas
+ * conforme chegam, entao a pagina e emitida produto a produto.
+ */
+@Repository
+public class ProductReactiveRepository {
+
+	private static final String COLUMNS = "SELECT p.id, p.name, CAST(p.description AS VARCHAR) AS description, "
+			+ "p.price, p.img_url, p.date, COALESCE(p.updated_at, p.created_at) AS last_modified, p.view_count, "
+			+ "c.id AS category_id, c.name AS category_name ";
+
+	private static final String JOINS = "LEFT JOIN tb_product_category pc ON pc.product_id = p.id "
+			+ "LEFT JOIN tb_category c ON c.id = pc.category_id ";
+
+	private final DatabaseClient databaseClient;
+
+	public ProductReactiveRepository(DatabaseClient databaseClient) {
+		this.databaseClient = databaseClient;
+	}
+
+	/**
+	 * Mesmo filtro da listagem JPA. sortColumn deve vir de uma lista fechada de
+	 * colunas, pois e concatenado no SQL.
+	 */
+	public Flux<ProductDTO> search(Long categoryId, String name, String sortColumn, boolean ascending,
+			long offset, int limit) {
+		String direction = ascending ? "ASC" : "DESC";
+		String order = "p." + sortColumn + " " + direction + ", p.id " + direction;
+		String filter = "WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) "
+				+ (categoryId == null ? "" : "AND p.id IN (SELECT product_id FROM tb_product_category WHERE category_id = :categoryId) ");
+		String sql = COLUMNS
+				+ "FROM (SELECT p.id FROM tb_product p " + filter + "ORDER BY " + order + " LIMIT :limit OFFSET :offset) page "
+				+ "INNER JOIN tb_product p ON p.id = page.id "
+				+ JOINS
+				+ "ORDER BY " + order + ", c.id";
+		DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+				.bind("name", name)
+				.bind("limit", limit)
+				.bind("offset", offset);
+		if (categoryId != null) {
+			spec = spec.bind("categoryId", categoryId);
+		}
+		return group(spec.map((row, metadata) -> toDto(row)).all());
+	}
+
+	public Mono<ProductDTO> findById(Long id) {
+		String sql = COLUMNS + "FROM tb_product p " + JOINS + "WHERE p.id = :id ORDER BY c.id";
+		Flux<ProductDTO> rows = databaseClient.sql(sql)
+				.bind("id", id)
+				.map((row, metadata) -> toDto(row))
+				.all();
+		return group(rows).next();
+	}
+
+	// Junta as linhas consecutivas do mesmo produto num unico DTO com todas as categorias
+	private static Flux<ProductDTO> group(Flux<ProductDTO> rows) {
+		return rows.bufferUntilChanged(ProductDTO::getId).map(ProductReactiveRepository::merge);
+	}
+
+	private static ProductDTO merge(List<ProductDTO> rows) {
+		ProductDTO first = rows.get(0);
+		for (int i = 1; i < rows.size(); i++) {
+			first.getCategories().addAll(rows.get(i).getCategories());
+		}
+		return first;
+	}
+
+	private static ProductDTO toDto(Row row) {
+		ProductDTO dto = new ProductDTO(row.get("id", Long.class), row.get("name", String.class),
+				row.get("description", String.class), row.get("price", Double.class),
+				row.get("img_url", String.class), toInstant(row.get("date", LocalDateTime.class)));
+		dto.setLastModified(toInstant(row.get("last_modified", LocalDateTime.class)));
+		dto.setViewCount(row.get("view_count", Long.class));
+		Long categoryId = row.get("category_id", Long.class);
+		if (categoryId != null) {
+			dto.getCategories().add(new CategoryDTO(categoryId, row.get("category_name", String.class)));
+		}
+		return dto;
+	}
+
+	// As colunas sao TIMESTAMP WITHOUT TIME ZONE gravadas pelo Hibernate no fuso da JVM
+	private static Instant toInstant(LocalDateTime value) {
+		return value == null ? null : value.atZone(ZoneId.systemDefault()).toInstant();
+	}
+
+}
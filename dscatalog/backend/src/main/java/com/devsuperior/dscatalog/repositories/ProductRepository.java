@@ -1,11 +1,68 @@
 package com.devsuperior.dscatalog.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
 import com.devsuperior.dscatalog.entities.Product;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long>{
 
+	@EntityGraph(attributePaths = "categories")
+	Optional<Product> findWithCategoriesById(Long id);
+
+	Optional<ProductVersion> findVersionById(Long id);
+
+	// Uma consulta com e outra sem categoria: "(:categoryId IS NULL OR ...)" com parametro nulo
+	// nao tem tipo definido e o PostgreSQL recusa ("could not determine data type of parameter")
+	String NAME_FILTER = "LOWER(obj.name) LIKE LOWER(CONCAT('%', :name, '%'))";
+
+	String CATEGORY_FILTER = "obj.id IN "
+			+ "(SELECT p.id FROM Product p INNER JOIN p.categories cat WHERE cat.id = :categoryId) "
+			+ "AND " + NAME_FILTER;
+
+	// Primeiro passo: busca so os ids da pagina, sem join com categorias
+	@Query(value = "SELECT obj.id FROM Product obj WHERE " + NAME_FILTER,
+			countQuery = "SELECT COUNT(obj) FROM Product obj WHERE " + NAME_FILTER)
+	Page<Long> searchIds(String name, Pageable pageable);
+
+	@Query(value = "SELECT obj.id FROM Product obj WHERE " + CATEGORY_FILTER,
+			countQuery = "SELECT COUNT(obj) FROM Product obj WHERE " + CATEGORY_FILTER)
+	Page<Long> searchIdsByCategory(Long categoryId, String name, Pageable pageable);
+
+	// Segundo passo: carrega os produtos da pagina com as categorias numa unica consulta
+	@Query("SELECT DISTINCT obj FROM Product obj LEFT JOIN FETCH obj.categories WHERE obj.id IN :ids")
+	List<Product> findProductsWithCategories(List<Long> ids);
+
+	// Listagem enxuta: o DTO e montado na consulta, sem ler a descricao e sem hidratar entidades
+	@Query(value = "SELECT new com.devsuperior.dscatalog.dto.ProductSummaryDTO(obj.id, obj.name, obj.price, obj.imgUrl, obj.date) "
+			+ "FROM Product obj WHERE " + NAME_FILTER,
+			countQuery = "SELECT COUNT(obj) FROM Product obj WHERE " + NAME_FILTER)
+	Page<ProductSummaryDTO> searchSummaries(String name, Pageable pageable);
+
+	@Query(value = "SELECT new com.devsuperior.dscatalog.dto.ProductSummaryDTO(obj.id, obj.name, obj.price, obj.imgUrl, obj.date) "
+			+ "FROM Product obj WHERE " + CATEGORY_FILTER,
+			countQuery = "SELECT COUNT(obj) FROM Product obj WHERE " + CATEGORY_FILTER)
+	Page<ProductSummaryDTO> searchSummariesByCategory(Long categoryId, String name, Pageable pageable);
+
+	@Query("SELECT obj.id AS productId, cat.id AS categoryId FROM Product obj INNER JOIN obj.categories cat WHERE obj.id IN :ids")
+	List<ProductCategoryLink> findCategoryLinks(Collection<Long> ids);
+
+	// Paginacao por cursor (keyset): ordena por nome e id, sem OFFSET e sem COUNT
+	@Query("SELECT obj.id FROM Product obj ORDER BY obj.name, obj.id")
+	List<Long> findIdsOrderByName(Pageable pageable);
+
+	@Query("SELECT obj.id FROM Product obj WHERE obj.name > :name OR (obj.name = :name AND obj.id > :id) "
+			+ "ORDER BY obj.name, obj.id")
+	List<Long> findIdsOrderByNameAfter(String name, Long id, Pageable pageable);
+
 }
@@ -0,0 +1,16 @@
+package com.devsuperior.dscatalog.repositories;
+
+/**
+ * Versao do produto para o ETag: as colunas de auditoria mais o contador de
+ * visualizacoes, que tambem aparece no ProductDTO.
+ */
+public interface ProductVersion extends EntityVersion {
+
+	long getViewCount();
+
+	@Override
+	default String getTag() {
+		return EntityVersion.super.getTag() + "-" + getViewCount();
+	}
+
+}
@@ -1,6 +1,11 @@
 package com.devsuperior.dscatalog.repositories;
 
+import java.util.List;
+
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.devsuperior.dscatalog.entities.Role;
@@ -8,4 +13,8 @@ import com.devsuperior.dscatalog.entities.Role;
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long>{
 
+	@Override
+	@QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
+	List<Role> findAll();
+
 }
@@ -1,6 +1,14 @@
 package com.devsuperior.dscatalog.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.devsuperior.dscatalog.entities.User;
@@ -8,4 +16,30 @@ import com.devsuperior.dscatalog.entities.User;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long>{
 
+	// Usuario e perfis numa unica consulta; email tem indice pela restricao unique
+	@Query("SELECT obj FROM User obj LEFT JOIN FETCH obj.roles WHERE obj.email = :email")
+	Optional<User> findByEmail(String email);
+
+	@EntityGraph(attributePaths = "roles")
+	Optional<User> findWithRolesById(Long id);
+
+	// Primeiro passo da listagem: so os ids da pagina
+	@Query(value = "SELECT obj.id FROM User obj", countQuery = "SELECT COUNT(obj) FROM User obj")
+	Page<Long> findIds(Pageable pageable);
+
+	// Segundo passo: os usuarios da pagina com os perfis numa unica consulta
+	@Query("SELECT DISTINCT obj FROM User obj LEFT JOIN FETCH obj.roles WHERE obj.id IN :ids")
+	List<User> findUsersWithRoles(List<Long> ids);
+
+	@Query("SELECT obj.id FROM User obj ORDER BY obj.email, obj.id")
+	List<Long> findIdsOrderByEmail(Pageable pageable);
+
+	@Query("SELECT obj.id FROM User obj WHERE obj.email > :email OR (obj.email = :email AND obj.id > :id) "
+			+ "ORDER BY obj.email, obj.id")
+	List<Long> findIdsOrderByEmailAfter(String email, Long id, Pageable pageable);
+
+	// Usada pela importacao para rejeitar emails ja cadastrados antes do INSERT
+	@Query("SELECT obj.email FROM User obj WHERE obj.email IN :emails")
+	List<String> findExistingEmails(Collection<String> emails);
+
 }
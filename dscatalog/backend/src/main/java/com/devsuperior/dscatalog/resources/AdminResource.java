@@ -0,0 +1,75 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.devsuperior.dscatalog.dto.CacheRegionStatsDTO;
+import com.devsuperior.dscatalog.dto.CacheStatsDTO;
+import com.devsuperior.dscatalog.dto.SlowQueryDTO;
+import com.devsuperior.dscatalog.services.CategoryStatsService;
+import com.devsuperior.dscatalog.services.HibernateCacheStats;
+import com.devsuperior.dscatalog.services.ProductCache;
+import com.devsuperior.dscatalog.services.SlowQueryLog;
+import com.devsuperior.dscatalog.services.UserDetailsCache;
+
+@RestController
+@RequestMapping(value = "/admin")
+public class AdminResource {
+
+	private final ProductCache productCache;
+	private final UserDetailsCache userDetailsCache;
+	private final HibernateCacheStats hibernateCacheStats;
+	private final CategoryStatsService categoryStatsService;
+	private final SlowQueryLog slowQueryLog;
+
+	public AdminResource(ProductCache productCache, 
+			UserDetailsCache userDetailsCache, 
+			HibernateCacheStats hibernateCacheStats,
+			CategoryStatsService categoryStatsService,
+			SlowQueryLog slowQueryLog) {
+		this.productCache = productCache;
+		this.userDetailsCache = userDetailsCache;
+		this.hibernateCacheStats = hibernateCacheStats;
+		this.categoryStatsService = categoryStatsService;
+		this.slowQueryLog = slowQueryLog;
+	}
+
+	@GetMapping(value = "/caches/products")
+	public ResponseEntity<CacheStatsDTO> productCacheStats() {
+		return ResponseEntity.ok(productCache.stats());
+	}
+
+	@GetMapping(value = "/caches/users")
+	public ResponseEntity<CacheStatsDTO> userCacheStats() {
+		return ResponseEntity.ok(userDetailsCache.stats());
+	}
+
+	@GetMapping(value = "/caches/hibernate")
+	public ResponseEntity<List<CacheRegionStatsDTO>> hibernateCacheStats() {
+		return ResponseEntity.ok(hibernateCacheStats.regions());
+	}
+
+	@PostMapping(value = "/category-stats/rebuild")
+	public ResponseEntity<Void> rebuildCategoryStats() {
+		categoryStatsService.rebuild();
+		return ResponseEntity.noContent().build();
+	}
+
+	@GetMapping(value = "/slow-queries")
+	public ResponseEntity<List<SlowQueryDTO>> slowQueries() {
+		return ResponseEntity.ok(slowQueryLog.findSlowest());
+	}
+
+	@DeleteMapping(value = "/slow-queries")
+	public ResponseEntity<Void> clearSlowQueries() {
+		slowQueryLog.clear();
+		return ResponseEntity.noContent().build();
+	}
+
+}
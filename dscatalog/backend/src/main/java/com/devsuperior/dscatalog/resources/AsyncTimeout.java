@@ -0,0 +1,32 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+/**
+ * Timeout assincrono de uma unica requisicao. O StreamingResponseBody nao
+ * aceita timeout proprio, entao o valor e aplicado logo antes do processamento
+ * assincrono comecar, sem mudar o padrao das demais rotas.
+ */
+final class AsyncTimeout {
+
+	private AsyncTimeout() {
+	}
+
+	static void set(WebRequest request, Duration timeout) {
+		WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(AsyncTimeout.class.getName(),
+				new CallableProcessingInterceptor() {
+					@Override
+					public <T> void beforeConcurrentHandling(NativeWebRequest asyncRequest, Callable<T> task) {
+						((AsyncWebRequest) asyncRequest).setTimeout(timeout.toMillis());
+					}
+				});
+	}
+
+}
@@ -1,9 +1,11 @@
 package com.devsuperior.dscatalog.resources;
 
 import java.net.URI;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,32 +14,64 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.CategoryStatsDTO;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
 import com.devsuperior.dscatalog.services.CategoryService;
+import com.devsuperior.dscatalog.services.CategoryStatsService;
 
 @RestController
 @RequestMapping(value = "/categories")
 public class CategoryResource {
 
 	private final CategoryService categoryService;
+	private final CategoryStatsService categoryStatsService;
 
-	public CategoryResource(CategoryService categoryService) {
+	public CategoryResource(CategoryService categoryService, CategoryStatsService categoryStatsService) {
 		this.categoryService = categoryService;
+		this.categoryStatsService = categoryStatsService;
 	}
 
 	@GetMapping
-	public ResponseEntity<Page<CategoryDTO>> findAll(Pageable pageable) {	
+	public ResponseEntity<Page<CategoryDTO>> findAll(Pageable pageable, WebRequest request) {	
+		String etag = ETags.weak(categoryService.findCollectionVersion(), ETags.page(pageable));
+		if (request.checkNotModified(etag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+		}
 		Page<CategoryDTO> list = categoryService.findAllPaged(pageable);
 		
-		return ResponseEntity.ok(list);
+		return ResponseEntity.ok().eTag(etag).body(list);
+	}
+	
+	@GetMapping(value = "/scroll")
+	public ResponseEntity<CursorPageDTO<CategoryDTO>> scroll(
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "size", defaultValue = "20") Integer size) {
+		CursorPageDTO<CategoryDTO> page = categoryService.findAllByCursor(after, size);
+		return ResponseEntity.ok(page);
 	}
 	
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<CategoryDTO> findById(@PathVariable Long id) {
+	public ResponseEntity<CategoryDTO> findById(@PathVariable Long id, WebRequest request) {
+		Optional<String> etag = categoryService.findVersion(id).map(ETags::weak);
+		if (etag.isPresent() && request.checkNotModified(etag.get())) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag.get()).build();
+		}
 		CategoryDTO dto = categoryService.findById(id);
+		if (etag.isEmpty()) {
+			return ResponseEntity.ok(dto);
+		}
+		return ResponseEntity.ok().eTag(etag.get()).body(dto);
+	}
+
+	@GetMapping(value = "/{id}/stats")
+	public ResponseEntity<CategoryStatsDTO> findStats(@PathVariable Long id) {
+		CategoryStatsDTO dto = categoryStatsService.findByCategoryId(id);
 		return ResponseEntity.ok(dto);
 	}
 
@@ -0,0 +1,37 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+final class ETags {
+
+	private ETags() {
+	}
+
+	static String weak(Object... parts) {
+		StringJoiner joiner = new StringJoiner("-", "W/\"", "\"");
+		for (Object part : parts) {
+			joiner.add(String.valueOf(part));
+		}
+		return joiner.toString();
+	}
+
+	// Pagina, tamanho e ordenacao por extenso: um hash do toString poderia colidir
+	static String page(Pageable pageable) {
+		if (pageable.isUnpaged()) {
+			return "all";
+		}
+		StringJoiner joiner = new StringJoiner(".");
+		joiner.add("p" + pageable.getPageNumber()).add("s" + pageable.getPageSize());
+		for (Sort.Order order : pageable.getSort()) {
+			String property = URLEncoder.encode(order.getProperty(), StandardCharsets.UTF_8);
+			joiner.add(property + ":" + order.getDirection() + (order.isIgnoreCase() ? ":i" : ""));
+		}
+		return joiner.toString();
+	}
+
+}
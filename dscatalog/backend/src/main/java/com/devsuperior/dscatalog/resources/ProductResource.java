@@ -1,11 +1,19 @@
 package com.devsuperior.dscatalog.resources;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 
 import javax.validation.Valid;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,34 +21,118 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
+import com.devsuperior.dscatalog.dto.FacetedPageDTO;
+import com.devsuperior.dscatalog.dto.ImportReportDTO;
+import com.devsuperior.dscatalog.dto.ProductBatchDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductFacetsDTO;
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
+import com.devsuperior.dscatalog.services.ProductExportService;
+import com.devsuperior.dscatalog.services.ProductFileFormat;
+import com.devsuperior.dscatalog.services.ProductImportService;
 import com.devsuperior.dscatalog.services.ProductService;
 
 @RestController
 @RequestMapping(value = "/products")
 public class ProductResource {
 
+	// A exportacao do catalogo inteiro pode levar minutos
+	private static final Duration EXPORT_TIMEOUT = Duration.ofHours(1);
+
 	private final ProductService productService;
+	private final ProductExportService productExportService;
+	private final ProductImportService productImportService;
 
-	public ProductResource(ProductService productService) {
+	public ProductResource(ProductService productService, 
+			ProductExportService productExportService,
+			ProductImportService productImportService) {
 		this.productService = productService;
+		this.productExportService = productExportService;
+		this.productImportService = productImportService;
 	}
 
 	@GetMapping
-	public ResponseEntity<Page<ProductDTO>> findAll(Pageable pageable) {
-		Page<ProductDTO> list = productService.findAllPaged(pageable);
+	public ResponseEntity<Page<ProductDTO>> findAll(
+			@RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+			@RequestParam(value = "name", defaultValue = "") String name,
+			Pageable pageable) {
+		Page<ProductDTO> list = productService.findAllPaged(categoryId, name, pageable);
 		
 		return ResponseEntity.ok(list);
 	}
 	
+	// Mesma listagem com as contagens por faixa de preco e de data
+	@GetMapping(params = "facets=true")
+	public ResponseEntity<FacetedPageDTO<ProductDTO>> findAllWithFacets(
+			@RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+			@RequestParam(value = "name", defaultValue = "") String name,
+			Pageable pageable) {
+		Page<ProductDTO> list = productService.findAllPaged(categoryId, name, pageable);
+		ProductFacetsDTO facets = productService.findFacets(categoryId, name);
+		return ResponseEntity.ok(new FacetedPageDTO<>(list, facets));
+	}
+	
+	@GetMapping(value = "/summary")
+	public ResponseEntity<Page<ProductSummaryDTO>> findAllSummaries(
+			@RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+			@RequestParam(value = "name", defaultValue = "") String name,
+			Pageable pageable) {
+		Page<ProductSummaryDTO> list = productService.findSummariesPaged(categoryId, name, pageable);
+		return ResponseEntity.ok(list);
+	}
+	
+	@GetMapping(value = "/scroll")
+	public ResponseEntity<CursorPageDTO<ProductDTO>> scroll(
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "size", defaultValue = "20") Integer size) {
+		CursorPageDTO<ProductDTO> page = productService.findAllByCursor(after, size);
+		return ResponseEntity.ok(page);
+	}
+	
+	@GetMapping(value = "/search")
+	public ResponseEntity<List<ProductDTO>> search(
+			@RequestParam(value = "q", defaultValue = "") String q,
+			@RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+			@RequestParam(value = "limit", defaultValue = "20") Integer limit) {
+		List<ProductDTO> list = productService.search(q, categoryId, limit);
+		return ResponseEntity.ok(list);
+	}
+	
+	@GetMapping(value = "/export")
+	public ResponseEntity<StreamingResponseBody> export(
+			@RequestParam(value = "format", defaultValue = "ndjson") String format, WebRequest request) {
+		ProductFileFormat fileFormat = ProductFileFormat.of(format);
+		AsyncTimeout.set(request, EXPORT_TIMEOUT);
+		StreamingResponseBody body = out -> productExportService.export(fileFormat, out);
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(fileFormat.getContentType()))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + fileFormat.getExtension() + "\"")
+				.body(body);
+	}
+	
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<ProductDTO> findById(@PathVariable Long id) {
+	public ResponseEntity<ProductDTO> findById(@PathVariable Long id, WebRequest request) {
+		Optional<String> etag = productService.findVersion(id).map(ETags::weak);
+		if (etag.isPresent() && request.checkNotModified(etag.get())) {
+			productService.countView(id);
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag.get()).build();
+		}
 		ProductDTO dto = productService.findById(id);
-		return ResponseEntity.ok(dto);
+		// So depois de saber que o produto existe, senao ids invalidos tambem ganhariam contador
+		productService.countView(id);
+		if (etag.isEmpty()) {
+			return ResponseEntity.ok(dto);
+		}
+		return ResponseEntity.ok().eTag(etag.get()).body(dto);
 	}
 
 	@PostMapping
@@ -52,6 +144,20 @@ public class ProductResource {
 		return ResponseEntity.created(uri).body(dto);
 	}
 	
+	@PostMapping(value = "/batch")
+	public ResponseEntity<List<Long>> insertBatch(@Valid @RequestBody ProductBatchDTO dto) {
+		List<Long> ids = productService.insertBatch(dto.getProducts());
+		return ResponseEntity.status(HttpStatus.CREATED).body(ids);
+	}
+	
+	@PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+	public ResponseEntity<ImportReportDTO> importProducts(
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+		ProductFileFormat fileFormat = ProductFileFormat.of(contentType.getType() + "/" + contentType.getSubtype());
+		ImportReportDTO report = productImportService.importProducts(fileFormat, body);
+		return ResponseEntity.ok(report);
+	}
+	
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<ProductDTO> update(@PathVariable Long id, @Valid @RequestBody ProductDTO dto) {
 		dto = productService.update(id, dto);
@@ -0,0 +1,121 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.resources.exceptions.StandardError;
+import com.devsuperior.dscatalog.services.ReactiveCatalogService;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Rotas somente-leitura de /products e /categories servidas pelo WebFlux no
+ * servidor Netty do ReactiveServerConfig. Sao rotas funcionais, e nao um
+ * @RestController, para que o DispatcherServlet do Spring MVC nao as registre
+ * tambem. Com Accept application/x-ndjson cada produto e escrito assim que e
+ * lido; com application/json a lista sai como um array, tambem em streaming.
+ */
+@Component
+public class ReactiveCatalogRoutes {
+
+	private static final int DEFAULT_PAGE_SIZE = 20;
+
+	private final ReactiveCatalogService service;
+
+	public ReactiveCatalogRoutes(ReactiveCatalogService service) {
+		this.service = service;
+	}
+
+	public RouterFunction<ServerResponse> routes() {
+		return RouterFunctions.route()
+				.GET("/products", this::findAllProducts)
+				.GET("/products/{id}", this::findProductById)
+				.GET("/categories", this::findAllCategories)
+				.GET("/categories/{id}", this::findCategoryById)
+				.onError(ResourceNotFoundException.class, (e, request) -> error(HttpStatus.NOT_FOUND, "Resource not found...", e, request))
+				.onError(BadRequestException.class, (e, request) -> error(HttpStatus.BAD_REQUEST, "Bad request...", e, request))
+				.build();
+	}
+
+	// Mono.defer: erros de validacao viram sinal de erro e passam pelos onError acima
+	private Mono<ServerResponse> findAllProducts(ServerRequest request) {
+		return Mono.defer(() -> {
+			Long categoryId = number(request.queryParam("categoryId").orElse("0"));
+			String name = request.queryParam("name").orElse("");
+			return ServerResponse.ok()
+					.contentType(responseType(request))
+					.body(service.findAllPaged(categoryId, name, pageRequest(request)), ProductDTO.class);
+		});
+	}
+
+	private Mono<ServerResponse> findProductById(ServerRequest request) {
+		return Mono.defer(() -> service.findById(number(request.pathVariable("id"))))
+				.flatMap(dto -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(dto));
+	}
+
+	private Mono<ServerResponse> findAllCategories(ServerRequest request) {
+		return Mono.defer(() -> ServerResponse.ok()
+				.contentType(responseType(request))
+				.body(service.findAllCategories(pageRequest(request)), CategoryDTO.class));
+	}
+
+	private Mono<ServerResponse> findCategoryById(ServerRequest request) {
+		return Mono.defer(() -> service.findCategoryById(number(request.pathVariable("id"))))
+				.flatMap(dto -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(dto));
+	}
+
+	private static MediaType responseType(ServerRequest request) {
+		boolean ndjson = request.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::isCompatibleWith);
+		return ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+	}
+
+	// Mesmos parametros do Pageable do Spring MVC: page, size e sort=propriedade,direcao
+	private static PageRequest pageRequest(ServerRequest request) {
+		int page = number(request.queryParam("page").orElse("0")).intValue();
+		int size = number(request.queryParam("size").orElse(String.valueOf(DEFAULT_PAGE_SIZE))).intValue();
+		if (page < 0 || size < 1) {
+			throw new BadRequestException("page must be positive and size at least 1");
+		}
+		Optional<String> sort = request.queryParam("sort");
+		if (sort.isEmpty()) {
+			return PageRequest.of(page, size);
+		}
+		String[] parts = sort.get().split(",");
+		Sort.Direction direction = parts.length > 1 && parts[1].equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+		return PageRequest.of(page, size, Sort.by(direction, parts[0]));
+	}
+
+	private static Long number(String value) {
+		try {
+			return Long.valueOf(value);
+		}
+		catch (NumberFormatException e) {
+			throw new BadRequestException(String.format("%s is not a number", value));
+		}
+	}
+
+	private static Mono<ServerResponse> error(HttpStatus status, String error, Throwable e, ServerRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError(error);
+		err.setMessage(e.getMessage());
+		err.setPath(request.path());
+		return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(err);
+	}
+
+}
@@ -1,5 +1,7 @@
 package com.devsuperior.dscatalog.resources;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 
 import javax.validation.Valid;
@@ -14,11 +16,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
+import com.devsuperior.dscatalog.dto.ImportReportDTO;
 import com.devsuperior.dscatalog.dto.UserDTO;
 import com.devsuperior.dscatalog.dto.UserInsertDTO;
+import com.devsuperior.dscatalog.services.UserImportService;
 import com.devsuperior.dscatalog.services.UserService;
 
 @RestController
@@ -26,9 +32,11 @@ import com.devsuperior.dscatalog.services.UserService;
 public class UserResource {
 
 	private final UserService userService;
+	private final UserImportService userImportService;
 
-	public UserResource(UserService userService) {
+	public UserResource(UserService userService, UserImportService userImportService) {
 		this.userService = userService;
+		this.userImportService = userImportService;
 	}
 
 	@GetMapping
@@ -38,6 +46,14 @@ public class UserResource {
 		return ResponseEntity.ok(list);
 	}
 	
+	@GetMapping(value = "/scroll")
+	public ResponseEntity<CursorPageDTO<UserDTO>> scroll(
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "size", defaultValue = "20") Integer size) {
+		CursorPageDTO<UserDTO> page = userService.findAllByCursor(after, size);
+		return ResponseEntity.ok(page);
+	}
+	
 	@GetMapping(value = "/{id}")
 	public ResponseEntity<UserDTO> findById(@PathVariable Long id) {
 		UserDTO dto = userService.findById(id);
@@ -53,6 +69,12 @@ public class UserResource {
 		return ResponseEntity.created(uri).body(newDto);
 	}
 	
+	@PostMapping(value = "/import", consumes = "application/x-ndjson")
+	public ResponseEntity<ImportReportDTO> importUsers(InputStream body) throws IOException {
+		ImportReportDTO report = userImportService.importUsers(body);
+		return ResponseEntity.ok(report);
+	}
+	
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<UserDTO> update(@PathVariable Long id, @Valid @RequestBody UserDTO dto) {
 		dto = userService.update(id, dto);
@@ -0,0 +1,19 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+// Copia os numeros do Caffeine para o DTO, que nao depende da biblioteca de cache
+final class CaffeineCacheStats {
+
+	private CaffeineCacheStats() {
+	}
+
+	static CacheStatsDTO of(String name, Cache<?, ?> cache) {
+		CacheStats stats = cache.stats();
+		return new CacheStatsDTO(name, cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(),
+				stats.evictionCount(), stats.loadCount(), stats.averageLoadPenalty() / 1_000_000.0);
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+
+/**
+ * Publicado pelo CategoryService a cada escrita de categoria. Os ouvintes que
+ * mantem estruturas em memoria o recebem depois do commit.
+ */
+public class CategoryChangedEvent {
+
+	private final Long id;
+	
+	// Nulo quando a categoria foi removida
+	private final CategoryDTO category;
+
+	private CategoryChangedEvent(Long id, CategoryDTO category) {
+		this.id = id;
+		this.category = category;
+	}
+
+	public static CategoryChangedEvent saved(CategoryDTO category) {
+		return new CategoryChangedEvent(category.getId(), category);
+	}
+
+	public static CategoryChangedEvent deleted(Long id) {
+		return new CategoryChangedEvent(id, null);
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public CategoryDTO getCategory() {
+		return category;
+	}
+
+	public boolean isDeleted() {
+		return category == null;
+	}
+
+}
@@ -1,9 +1,12 @@
 package com.devsuperior.dscatalog.services;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityNotFoundException;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
@@ -12,6 +15,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
 import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
@@ -22,22 +26,49 @@ import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
 public class CategoryService {
 
 	private final CategoryRepository categoryRepository;
+	private final CategorySnapshot categorySnapshot;
+	private final CategoryStatsService categoryStatsService;
+	private final ApplicationEventPublisher eventPublisher;
 
-	public CategoryService(CategoryRepository categoryRepository) {
+	public CategoryService(CategoryRepository categoryRepository, CategorySnapshot categorySnapshot,
+			CategoryStatsService categoryStatsService, ApplicationEventPublisher eventPublisher) {
 		this.categoryRepository = categoryRepository;
+		this.categorySnapshot = categorySnapshot;
+		this.categoryStatsService = categoryStatsService;
+		this.eventPublisher = eventPublisher;
 	}
 
-	@Transactional(readOnly = true)
+	// Leituras servidas pela copia em memoria, sem ida ao banco
 	public Page<CategoryDTO> findAllPaged(Pageable pageable) {
-		Page<Category> list = categoryRepository.findAll(pageable);
-		return list.map(CategoryDTO::new);
+		return categorySnapshot.findAllPaged(pageable);
 	}
 
 	@Transactional(readOnly = true)
+	public CursorPageDTO<CategoryDTO> findAllByCursor(String after, int size) {
+		Pageable limit = KeysetCursor.limit(size);
+		List<Category> list;
+		if (after == null || after.isBlank()) {
+			list = categoryRepository.findAllOrderByName(limit);
+		}
+		else {
+			KeysetCursor cursor = KeysetCursor.decode(after);
+			list = categoryRepository.findAllOrderByNameAfter(cursor.getKey(), cursor.getId(), limit);
+		}
+		List<CategoryDTO> dtos = list.stream().map(CategoryDTO::new).collect(Collectors.toList());
+		return KeysetCursor.page(dtos, size, CategoryDTO::getName, CategoryDTO::getId);
+	}
+
 	public CategoryDTO findById(Long id) {
-		Optional<Category> obj = categoryRepository.findById(id);
-		Category entity = obj.orElseThrow(() -> new ResourceNotFoundException(String.format("id %d not found", id)));
-		return new CategoryDTO(entity);
+		Optional<CategoryDTO> obj = Optional.ofNullable(categorySnapshot.findById(id));
+		return obj.orElseThrow(() -> new ResourceNotFoundException(String.format("id %d not found", id)));
+	}
+
+	public Optional<String> findVersion(Long id) {
+		return Optional.ofNullable(categorySnapshot.findVersion(id));
+	}
+
+	public String findCollectionVersion() {
+		return categorySnapshot.findCollectionVersion();
 	}
 
 	@Transactional
@@ -45,7 +76,10 @@ public class CategoryService {
 		Category entity = new Category();
 		entity.setName(dto.getName());
 		entity = categoryRepository.save(entity);
-		return new CategoryDTO(entity);
+		categoryStatsService.categoryCreated(entity.getId());
+		CategoryDTO result = new CategoryDTO(entity);
+		eventPublisher.publishEvent(CategoryChangedEvent.saved(result));
+		return result;
 	}
 
 	@Transactional
@@ -54,7 +88,9 @@ public class CategoryService {
 			Category entity = categoryRepository.getOne(id);
 			entity.setName(dto.getName());
 			entity = categoryRepository.save(entity);
-			return new CategoryDTO(entity);
+			CategoryDTO result = new CategoryDTO(entity);
+			eventPublisher.publishEvent(CategoryChangedEvent.saved(result));
+			return result;
 		}
 		catch (EntityNotFoundException e) {
 			throw new ResourceNotFoundException(String.format("id %d not found!", id));
@@ -64,6 +100,8 @@ public class CategoryService {
 	public void delete(Long id) {
 		try {
 			categoryRepository.deleteById(id);
+			categoryStatsService.categoryDeleted(id);
+			eventPublisher.publishEvent(CategoryChangedEvent.deleted(id));
 		} catch (EmptyResultDataAccessException e) {
 			throw new ResourceNotFoundException(String.format("id %d not found!", id));
 		} catch (DataIntegrityViolationException e) {
@@ -0,0 +1,189 @@
+package com.devsuperior.dscatalog.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.repositories.EntityVersion;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+
+/**
+ * Copia imutavel de todas as categorias, com as listas ja ordenadas por id e
+ * por nome. As leituras so pegam a referencia atual (volatile), sem lock e sem
+ * banco; cada escrita de categoria monta uma copia nova depois do commit e troca
+ * a referencia. Os DTOs sao compartilhados entre as requisicoes, entao sao
+ * somente leitura: os setters lancam UnsupportedOperationException.
+ */
+@Component
+public class CategorySnapshot {
+
+	private final CategoryRepository categoryRepository;
+
+	private volatile Snapshot current;
+
+	public CategorySnapshot(CategoryRepository categoryRepository) {
+		this.categoryRepository = categoryRepository;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		reload();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCategoryChanged(CategoryChangedEvent event) {
+		reload();
+	}
+
+	// Sincronizado para que uma recarga antiga nunca sobrescreva uma mais nova
+	public synchronized void reload() {
+		current = new Snapshot(PrimaryReads.call(categoryRepository::findAll));
+	}
+
+	public CategoryDTO findById(Long id) {
+		return snapshot().byId.get(id);
+	}
+
+	public String findVersion(Long id) {
+		return snapshot().versions.get(id);
+	}
+
+	public String findCollectionVersion() {
+		return snapshot().version;
+	}
+
+	public int size() {
+		return snapshot().sortedById.size();
+	}
+
+	/**
+	 * Pagina sobre a lista ja ordenada. Aceita ordenacao por id ou por nome (so a
+	 * primeira propriedade e considerada); sem ordenacao, segue a ordem do id.
+	 */
+	public Page<CategoryDTO> findAllPaged(Pageable pageable) {
+		List<CategoryDTO> view = snapshot().view(pageable.getSort());
+		if (pageable.isUnpaged()) {
+			return new PageImpl<>(view, pageable, view.size());
+		}
+		int from = (int) Math.min(pageable.getOffset(), view.size());
+		int to = Math.min(from + pageable.getPageSize(), view.size());
+		return new PageImpl<>(view.subList(from, to), pageable, view.size());
+	}
+
+	private Snapshot snapshot() {
+		Snapshot snapshot = current;
+		if (snapshot == null) {
+			synchronized (this) {
+				if (current == null) {
+					reload();
+				}
+				snapshot = current;
+			}
+		}
+		return snapshot;
+	}
+
+	private static final class Snapshot {
+
+		private final Map<Long, CategoryDTO> byId;
+		private final Map<Long, String> versions;
+		private final List<CategoryDTO> sortedById;
+		private final List<CategoryDTO> sortedByIdDesc;
+		private final List<CategoryDTO> sortedByName;
+		private final List<CategoryDTO> sortedByNameDesc;
+		private final String version;
+
+		Snapshot(List<Category> categories) {
+			Map<Long, CategoryDTO> byId = new HashMap<>(categories.size() * 2);
+			Map<Long, String> versions = new HashMap<>(categories.size() * 2);
+			List<CategoryDTO> list = new ArrayList<>(categories.size());
+			Instant lastModified = null;
+			long versionSum = 0L;
+			long maxId = 0L;
+			for (Category entity : categories) {
+				CategoryDTO dto = new ReadOnlyCategoryDTO(entity);
+				Instant modified = entity.getUpdatedAt() != null ? entity.getUpdatedAt() : entity.getCreatedAt();
+				if (modified != null && (lastModified == null || modified.isAfter(lastModified))) {
+					lastModified = modified;
+				}
+				versionSum += entity.getVersion() == null ? 0L : entity.getVersion();
+				maxId = Math.max(maxId, entity.getId());
+				byId.put(dto.getId(), dto);
+				versions.put(dto.getId(), EntityVersion.tag(dto.getId(), modified));
+				list.add(dto);
+			}
+			this.byId = Map.copyOf(byId);
+			this.versions = Map.copyOf(versions);
+			this.sortedById = sorted(list, Comparator.comparing(CategoryDTO::getId));
+			this.sortedByName = sorted(list, Comparator.comparing(CategoryDTO::getName,
+					Comparator.nullsFirst(Comparator.<String>naturalOrder())).thenComparing(CategoryDTO::getId));
+			this.sortedByIdDesc = reversed(sortedById);
+			this.sortedByNameDesc = reversed(sortedByName);
+			// Soma das versoes e maior id mudam mesmo com duas escritas no mesmo milissegundo
+			this.version = list.size() + "-" + (lastModified == null ? 0L : lastModified.toEpochMilli())
+					+ "-" + versionSum + "-" + maxId;
+		}
+
+		List<CategoryDTO> view(Sort sort) {
+			Sort.Order order = sort.stream().findFirst().orElse(null);
+			if (order == null) {
+				return sortedById;
+			}
+			switch (order.getProperty()) {
+				case "id":
+					return order.isAscending() ? sortedById : sortedByIdDesc;
+				case "name":
+					return order.isAscending() ? sortedByName : sortedByNameDesc;
+				default:
+					throw new BadRequestException(String.format("sort by %s is not supported", order.getProperty()));
+			}
+		}
+
+		private static List<CategoryDTO> sorted(List<CategoryDTO> list, Comparator<CategoryDTO> comparator) {
+			List<CategoryDTO> copy = new ArrayList<>(list);
+			copy.sort(comparator);
+			return List.copyOf(copy);
+		}
+
+		private static List<CategoryDTO> reversed(List<CategoryDTO> list) {
+			List<CategoryDTO> copy = new ArrayList<>(list);
+			Collections.reverse(copy);
+			return List.copyOf(copy);
+		}
+	}
+
+	private static final class ReadOnlyCategoryDTO extends CategoryDTO {
+		private static final long serialVersionUID = 1L;
+
+		ReadOnlyCategoryDTO(Category entity) {
+			super(entity);
+		}
+
+		@Override
+		public void setId(Long id) {
+			throw new UnsupportedOperationException("category snapshot is read-only");
+		}
+
+		@Override
+		public void setName(String name) {
+			throw new UnsupportedOperationException("category snapshot is read-only");
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.devsuperior.dscatalog.services;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscatalog.dto.CategoryStatsDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.CategoryStats;
+import com.devsuperior.dscatalog.repositories.CategoryAggregate;
+import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.repositories.CategoryStatsRepository;
+import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+
+/**
+ * Mantem a tabela de estatisticas por categoria. As atualizacoes rodam na mesma
+ * transacao da escrita do produto, com a linha da categoria travada; as
+ * categorias sao sempre travadas em ordem de id para evitar deadlock.
+ */
+@Service
+public class CategoryStatsService {
+
+	private final CategoryStatsRepository statsRepository;
+	private final CategoryRepository categoryRepository;
+	private final CategorySnapshot categorySnapshot;
+
+	public CategoryStatsService(CategoryStatsRepository statsRepository, CategoryRepository categoryRepository,
+			CategorySnapshot categorySnapshot) {
+		this.statsRepository = statsRepository;
+		this.categoryRepository = categoryRepository;
+		this.categorySnapshot = categorySnapshot;
+	}
+
+	@Transactional(readOnly = true)
+	public CategoryStatsDTO findByCategoryId(Long categoryId) {
+		if (categorySnapshot.findById(categoryId) == null) {
+			throw new ResourceNotFoundException(String.format("id %d not found", categoryId));
+		}
+		CategoryStats stats = statsRepository.findById(categoryId).orElseGet(() -> new CategoryStats(categoryId));
+		return new CategoryStatsDTO(stats);
+	}
+
+	@Transactional
+	public void categoryCreated(Long categoryId) {
+		statsRepository.save(new CategoryStats(categoryId));
+	}
+
+	@Transactional
+	public void categoryDeleted(Long categoryId) {
+		statsRepository.findById(categoryId).ifPresent(statsRepository::delete);
+	}
+
+	/**
+	 * Aplica a troca de um produto: as categorias antigas perdem o preco e a data
+	 * antigos, as novas ganham os novos. Insercao e remocao usam um conjunto vazio
+	 * do lado que nao existe.
+	 */
+	@Transactional
+	public void productChanged(Set<Long> oldCategories, Double oldPrice, Instant oldDate,
+			Set<Long> newCategories, Double newPrice, Instant newDate) {
+		boolean sameValues = Objects.equals(oldPrice, newPrice) && Objects.equals(oldDate, newDate);
+		Set<Long> ids = new TreeSet<>(oldCategories);
+		ids.addAll(newCategories);
+		for (Long id : ids) {
+			boolean wasIn = oldCategories.contains(id);
+			boolean isIn = newCategories.contains(id);
+			if (wasIn && isIn && sameValues) {
+				continue;
+			}
+			CategoryStats stats = lock(id);
+			if (wasIn && !stats.remove(oldPrice, oldDate)) {
+				// O recalculo ja enxerga o estado novo do produto
+				recompute(stats);
+				continue;
+			}
+			if (isIn) {
+				stats.add(newPrice, newDate);
+			}
+		}
+	}
+
+	// Insercao em lote: cada categoria e travada uma unica vez com o total do lote
+	@Transactional
+	public void productsAdded(Map<Long, CategoryStats> deltas) {
+		for (Long id : new TreeSet<>(deltas.keySet())) {
+			lock(id).merge(deltas.get(id));
+		}
+	}
+
+	/**
+	 * Recalcula todas as linhas a partir dos produtos, numa unica consulta
+	 * agregada. Usado para recuperacao e para popular a tabela vazia.
+	 */
+	@Transactional
+	public void rebuild() {
+		Map<Long, CategoryAggregate> aggregates = statsRepository.aggregateAll().stream()
+				.collect(Collectors.toMap(CategoryAggregate::getCategoryId, Function.identity()));
+		Set<Long> categoryIds = categoryRepository.findAll().stream()
+				.map(Category::getId)
+				.collect(Collectors.toCollection(TreeSet::new));
+		for (Long id : categoryIds) {
+			reset(lock(id), aggregates.get(id));
+		}
+		statsRepository.findAll().stream()
+				.filter(stats -> !categoryIds.contains(stats.getCategoryId()))
+				.forEach(statsRepository::delete);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional
+	public void onApplicationReady() {
+		if (statsRepository.count() == 0L) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * Trava a linha de estatisticas da categoria, criando-a se faltar. Sem a linha
+	 * nao ha o que travar, e duas transacoes poderiam inserir a mesma chave; entao a
+	 * linha da categoria e travada antes e a ausencia e conferida de novo.
+	 */
+	private CategoryStats lock(Long categoryId) {
+		Optional<CategoryStats> stats = statsRepository.findForUpdate(categoryId);
+		if (stats.isPresent()) {
+			return stats.get();
+		}
+		categoryRepository.findForUpdate(categoryId);
+		return statsRepository.findForUpdate(categoryId)
+				.orElseGet(() -> statsRepository.saveAndFlush(new CategoryStats(categoryId)));
+	}
+
+	private void recompute(CategoryStats stats) {
+		statsRepository.flush();
+		reset(stats, statsRepository.aggregate(stats.getCategoryId()).orElse(null));
+	}
+
+	private static void reset(CategoryStats stats, CategoryAggregate aggregate) {
+		if (aggregate == null) {
+			stats.reset(0L, BigDecimal.ZERO, null, null, null);
+			return;
+		}
+		stats.reset(aggregate.getProductCount(), aggregate.getPriceSum() == null ? BigDecimal.ZERO : CategoryStats.toDecimal(aggregate.getPriceSum()),
+				aggregate.getMinPrice(), aggregate.getMaxPrice(), aggregate.getLatestDate());
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.dto.CacheRegionStatsDTO;
+
+// Estatisticas das regioes do cache de segundo nivel, coletadas pelo Hibernate
+@Component
+public class HibernateCacheStats {
+
+	private final Statistics statistics;
+
+	public HibernateCacheStats(EntityManagerFactory entityManagerFactory) {
+		this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	public List<CacheRegionStatsDTO> regions() {
+		return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+				.sorted()
+				.map(name -> new CacheRegionStatsDTO(name, statistics.getCacheRegionStatistics(name)))
+				.collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.devsuperior.dscatalog.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+
+/**
+ * Cursor de paginacao por chave (keyset): guarda a chave de ordenacao e o id
+ * do ultimo registro entregue, para que a proxima pagina seja buscada com um
+ * predicado "depois de" em vez de OFFSET, e sem COUNT.
+ */
+final class KeysetCursor {
+
+	static final int MAX_SIZE = 1000;
+
+	private final String key;
+	private final Long id;
+
+	private KeysetCursor(String key, Long id) {
+		this.key = key;
+		this.id = id;
+	}
+
+	String getKey() {
+		return key;
+	}
+
+	Long getId() {
+		return id;
+	}
+
+	static KeysetCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separator = raw.indexOf(':');
+			Long id = Long.valueOf(raw.substring(0, separator));
+			return new KeysetCursor(raw.substring(separator + 1), id);
+		}
+		catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new BadRequestException("Invalid cursor: " + token);
+		}
+	}
+
+	static String encode(String key, Long id) {
+		String raw = id + ":" + (key == null ? "" : key);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// Busca um registro a mais para saber se existe proxima pagina sem COUNT
+	static Pageable limit(int size) {
+		if (size < 1 || size > MAX_SIZE) {
+			throw new BadRequestException(String.format("size must be between 1 and %d", MAX_SIZE));
+		}
+		return PageRequest.of(0, size + 1);
+	}
+
+	static <T> CursorPageDTO<T> page(List<T> rows, int size, Function<T, String> keyOf, Function<T, Long> idOf) {
+		if (rows.size() <= size) {
+			return new CursorPageDTO<>(rows, size, null);
+		}
+		List<T> content = new ArrayList<>(rows.subList(0, size));
+		T last = content.get(size - 1);
+		return new CursorPageDTO<>(content, size, encode(keyOf.apply(last), idOf.apply(last)));
+	}
+
+}
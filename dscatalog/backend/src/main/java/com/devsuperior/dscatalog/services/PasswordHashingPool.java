@@ -0,0 +1,76 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool dedicado para gerar hashes BCrypt nas importacoes em massa. O numero de
+ * threads segue os nucleos da maquina e o total de senhas em andamento e
+ * limitado: quem submete fica bloqueado ate abrir vaga, entao um arquivo grande
+ * nao enche a memoria nem ocupa as threads do Tomcat com hashing.
+ */
+@Component
+public class PasswordHashingPool {
+
+	private final BCryptPasswordEncoder passwordEncoder;
+	private final ExecutorService executor;
+	private final Semaphore inFlight;
+	private final int threads;
+
+	public PasswordHashingPool(BCryptPasswordEncoder passwordEncoder,
+			@Value("${app.password-hashing.threads:0}") int threads,
+			@Value("${app.password-hashing.queue-capacity:1000}") int queueCapacity) {
+		this.passwordEncoder = passwordEncoder;
+		this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		// A fila nunca enche: o semaforo ja limita o que foi submetido
+		this.inFlight = new Semaphore(this.threads + queueCapacity);
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	// Bloqueia enquanto o pool estiver cheio; esse e o ponto de contrapressao
+	public CompletableFuture<String> encode(String rawPassword) {
+		try {
+			inFlight.acquire();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the password hashing pool", e);
+		}
+		try {
+			return CompletableFuture
+					.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor)
+					.whenComplete((hash, error) -> inFlight.release());
+		}
+		catch (RuntimeException e) {
+			inFlight.release();
+			throw e;
+		}
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+}
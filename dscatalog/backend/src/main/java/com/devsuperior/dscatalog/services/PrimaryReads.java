@@ -0,0 +1,42 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.function.Supplier;
+
+/**
+ * Leituras que alimentam caches e copias em memoria vao ao primario, mesmo em
+ * transacao readOnly: uma replica atrasada deixaria o dado velho guardado ate a
+ * proxima invalidacao, e nao so naquela resposta. O ReadWriteRoutingDataSource
+ * consulta isActive antes de escolher uma replica.
+ */
+public final class PrimaryReads {
+
+	private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+	private PrimaryReads() {
+	}
+
+	public static <T> T call(Supplier<T> supplier) {
+		Boolean previous = ACTIVE.get();
+		ACTIVE.set(Boolean.TRUE);
+		try {
+			return supplier.get();
+		}
+		finally {
+			if (previous == null) {
+				ACTIVE.remove();
+			}
+		}
+	}
+
+	public static void run(Runnable runnable) {
+		call(() -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	public static boolean isActive() {
+		return ACTIVE.get() != null;
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.devsuperior.dscatalog.services;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.devsuperior.dscatalog.dto.CacheStatsDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Cache read-through dos detalhes de produto, limitado em tamanho e com TTL.
+ * As entradas sao invalidadas depois do commit de cada escrita de produto; a
+ * troca do nome de uma categoria invalida tudo, pois o DTO traz as categorias.
+ * Quem le recebe uma copia, entao o DTO guardado nao muda depois de entrar.
+ */
+@Component
+public class ProductCache {
+
+	public static final String NAME = "products";
+
+	private final Cache<Long, ProductDTO> cache;
+
+	public ProductCache(@Value("${app.product-cache.max-size:10000}") long maxSize,
+			@Value("${app.product-cache.ttl:10m}") Duration ttl) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+	}
+
+	// O DTO em cache nunca sai daqui: cada leitura recebe uma copia que o chamador pode alterar.
+	// A carga vai ao primario, para nao guardar o que uma replica atrasada devolveu
+	public ProductDTO get(Long id, Function<Long, ProductDTO> loader) {
+		return new ProductDTO(cache.get(id, key -> PrimaryReads.call(() -> loader.apply(key))));
+	}
+
+	public ProductDTO getIfPresent(Long id) {
+		return cache.getIfPresent(id);
+	}
+
+	public void invalidate(Long id) {
+		cache.invalidate(id);
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public CacheStatsDTO stats() {
+		return CaffeineCacheStats.of(NAME, cache);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		invalidate(event.getId());
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCategoryChanged(CategoryChangedEvent event) {
+		invalidateAll();
+	}
+
+}
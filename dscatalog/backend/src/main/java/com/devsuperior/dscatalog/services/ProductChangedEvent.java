@@ -0,0 +1,41 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+
+/**
+ * Publicado pelo ProductService a cada escrita de produto. Os ouvintes que
+ * mantem estruturas em memoria o recebem depois do commit.
+ */
+public class ProductChangedEvent {
+
+	private final Long id;
+	
+	// Nulo quando o produto foi removido
+	private final ProductDTO product;
+
+	private ProductChangedEvent(Long id, ProductDTO product) {
+		this.id = id;
+		this.product = product;
+	}
+
+	public static ProductChangedEvent saved(ProductDTO product) {
+		return new ProductChangedEvent(product.getId(), product);
+	}
+
+	public static ProductChangedEvent deleted(Long id) {
+		return new ProductChangedEvent(id, null);
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public ProductDTO getProduct() {
+		return product;
+	}
+
+	public boolean isDeleted() {
+		return product == null;
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.devsuperior.dscatalog.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+
+/**
+ * Layout CSV dos produtos (RFC 4180, linhas terminadas em CRLF). As
+ * categorias vao numa unica coluna, com os ids separados por "|".
+ */
+final class ProductCsv {
+
+	static final String HEADER = "id,name,description,price,imgUrl,date,categoryIds";
+	static final String CATEGORY_SEPARATOR = "|";
+	static final String LINE_SEPARATOR = "\r\n";
+
+	static final int MAX_FIELD_LENGTH = 1_000_000;
+
+	private ProductCsv() {
+	}
+
+	static String toRecord(ProductDTO dto) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(dto.getId() == null ? "" : dto.getId()).append(',');
+		sb.append(escape(dto.getName())).append(',');
+		sb.append(escape(dto.getDescription())).append(',');
+		sb.append(dto.getPrice() == null ? "" : dto.getPrice()).append(',');
+		sb.append(escape(dto.getImgUrl())).append(',');
+		sb.append(dto.getDate() == null ? "" : dto.getDate()).append(',');
+		sb.append(dto.getCategories().stream()
+				.map(cat -> String.valueOf(cat.getId()))
+				.collect(Collectors.joining(CATEGORY_SEPARATOR)));
+		return sb.toString();
+	}
+
+	/**
+	 * Le um registro, que pode ocupar varias linhas quando um campo entre
+	 * aspas tem quebra de linha. Devolve null no fim do arquivo.
+	 */
+	static List<String> readRecord(BufferedReader reader) throws IOException {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		boolean read = false;
+		int c;
+		while ((c = reader.read()) != -1) {
+			read = true;
+			if (field.length() > MAX_FIELD_LENGTH) {
+				throw new BadRequestException("CSV field longer than " + MAX_FIELD_LENGTH + " characters, check for an unclosed quote");
+			}
+			if (quoted) {
+				if (c == '"') {
+					reader.mark(1);
+					int next = reader.read();
+					if (next == '"') {
+						field.append('"');
+					}
+					else {
+						quoted = false;
+						if (next != -1) {
+							reader.reset();
+						}
+					}
+				}
+				else {
+					field.append((char) c);
+				}
+			}
+			else if (c == '"') {
+				quoted = true;
+			}
+			else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else if (c == '\n') {
+				break;
+			}
+			else if (c != '\r') {
+				field.append((char) c);
+			}
+		}
+		if (!read) {
+			return null;
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	static String escape(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+}
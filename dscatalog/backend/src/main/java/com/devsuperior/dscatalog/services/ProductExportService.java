@@ -0,0 +1,139 @@
+package com.devsuperior.dscatalog.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Exporta o catalogo inteiro lendo o banco com um cursor somente-avanco e
+ * escrevendo cada produto direto na saida, entao o uso de memoria nao depende
+ * do tamanho do catalogo.
+ */
+@Service
+public class ProductExportService {
+
+	private static final int FETCH_SIZE = 500;
+
+	// Uma linha por par produto/categoria, ordenada por produto para agrupar em sequencia
+	private static final String SQL = "SELECT p.id, p.name, p.description, p.price, p.img_url, p.date, "
+			+ "p.created_at, p.updated_at, p.view_count, c.id AS category_id, c.name AS category_name "
+			+ "FROM tb_product p "
+			+ "LEFT JOIN tb_product_category pc ON pc.product_id = p.id "
+			+ "LEFT JOIN tb_category c ON c.id = pc.category_id "
+			+ "ORDER BY p.id, c.id";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ObjectMapper objectMapper;
+
+	public ProductExportService(DataSource dataSource, ObjectMapper objectMapper) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+		this.objectMapper = objectMapper;
+	}
+
+	// A transacao e necessaria para o driver do PostgreSQL respeitar o fetch size
+	@Transactional(readOnly = true)
+	public void export(ProductFileFormat format, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		if (format == ProductFileFormat.CSV) {
+			writer.write(ProductCsv.HEADER);
+			writer.write(ProductCsv.LINE_SEPARATOR);
+		}
+		RowWriter rowWriter = new RowWriter(format, writer);
+		try {
+			jdbcTemplate.query(SQL, rowWriter);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		rowWriter.finish();
+		writer.flush();
+	}
+
+	private class RowWriter implements RowCallbackHandler {
+
+		private final ProductFileFormat format;
+		private final Writer writer;
+		private ProductDTO current;
+
+		RowWriter(ProductFileFormat format, Writer writer) {
+			this.format = format;
+			this.writer = writer;
+		}
+
+		@Override
+		public void processRow(ResultSet rs) throws SQLException {
+			long id = rs.getLong("id");
+			if (current == null || current.getId() != id) {
+				write(current);
+				current = new ProductDTO(id, rs.getString("name"), rs.getString("description"), 
+						price(rs), rs.getString("img_url"), instant(rs.getTimestamp("date")));
+				Instant updatedAt = instant(rs.getTimestamp("updated_at"));
+				current.setLastModified(updatedAt != null ? updatedAt : instant(rs.getTimestamp("created_at")));
+				current.setViewCount(rs.getLong("view_count"));
+			}
+			long categoryId = rs.getLong("category_id");
+			if (!rs.wasNull()) {
+				current.getCategories().add(new CategoryDTO(categoryId, rs.getString("category_name")));
+			}
+		}
+
+		void finish() throws IOException {
+			try {
+				write(current);
+			}
+			catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+
+		private void write(ProductDTO dto) {
+			if (dto == null) {
+				return;
+			}
+			try {
+				if (format == ProductFileFormat.CSV) {
+					writer.write(ProductCsv.toRecord(dto));
+					writer.write(ProductCsv.LINE_SEPARATOR);
+				}
+				else {
+					writer.write(objectMapper.writeValueAsString(dto));
+					writer.write('\n');
+				}
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private Double price(ResultSet rs) throws SQLException {
+			double price = rs.getDouble("price");
+			return rs.wasNull() ? null : price;
+		}
+
+		private Instant instant(Timestamp timestamp) {
+			return timestamp == null ? null : timestamp.toInstant();
+		}
+
+	}
+
+}
@@ -0,0 +1,296 @@
+package com.devsuperior.dscatalog.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.DateBucketDTO;
+import com.devsuperior.dscatalog.dto.PriceBucketDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductFacetsDTO;
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
+import com.devsuperior.dscatalog.repositories.ProductCategoryLink;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+
+/**
+ * Copia colunar em memoria de preco, data, nome e categorias dos produtos, uma
+ * posicao por produto em arrays primitivos. As facetas sao contadas numa unica
+ * passada sobre os arrays, com o mesmo filtro de categoria e nome da listagem.
+ * Cada categoria guarda um BitSet das posicoes dos seus produtos; a remocao
+ * move o ultimo produto para a posicao liberada, entao os arrays nao tem buracos.
+ */
+@Component
+public class ProductFacetIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+	private static final int REBUILD_PAGE_SIZE = 500;
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final long NO_DATE = Long.MIN_VALUE;
+	private static final long[] NO_CATEGORIES = new long[0];
+
+	private final ProductRepository productRepository;
+	private final double[] priceEdges;
+	private final long[] dateDays;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<Long, Integer> positions = new HashMap<>();
+	private final Map<Long, BitSet> categoryRows = new HashMap<>();
+	private long[] ids = new long[INITIAL_CAPACITY];
+	private double[] prices = new double[INITIAL_CAPACITY];
+	private long[] dates = new long[INITIAL_CAPACITY];
+	private String[] names = new String[INITIAL_CAPACITY];
+	private long[][] rowCategories = new long[INITIAL_CAPACITY][];
+	private int size;
+
+	public ProductFacetIndex(ProductRepository productRepository,
+			@Value("${app.facets.price-edges:100,500,1000,2000,5000}") double[] priceEdges,
+			@Value("${app.facets.date-days:7,30,365}") long[] dateDays) {
+		this.productRepository = productRepository;
+		this.priceEdges = priceEdges.clone();
+		this.dateDays = dateDays.clone();
+		Arrays.sort(this.priceEdges);
+		Arrays.sort(this.dateDays);
+	}
+
+	// Le do primario, como as cargas de cache (ver PrimaryReads)
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		PrimaryReads.run(this::load);
+	}
+
+	private void load() {
+		lock.writeLock().lock();
+		try {
+			positions.clear();
+			categoryRows.clear();
+			Arrays.fill(names, 0, size, null);
+			Arrays.fill(rowCategories, 0, size, null);
+			size = 0;
+			Page<ProductSummaryDTO> page;
+			int number = 0;
+			do {
+				page = productRepository.searchSummaries("", PageRequest.of(number++, REBUILD_PAGE_SIZE, Sort.by("id")));
+				List<Long> pageIds = page.map(ProductSummaryDTO::getId).getContent();
+				Map<Long, List<Long>> links = pageIds.isEmpty() ? Map.of() : productRepository.findCategoryLinks(pageIds).stream()
+						.collect(Collectors.groupingBy(ProductCategoryLink::getProductId,
+								Collectors.mapping(ProductCategoryLink::getCategoryId, Collectors.toList())));
+				for (ProductSummaryDTO product : page) {
+					put(product.getId(), product.getName(), product.getPrice(), product.getDate(),
+							toArray(links.getOrDefault(product.getId(), List.of())));
+				}
+			} while (page.hasNext());
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+		log.info("Product facet index built with {} products", size);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		if (event.isDeleted()) {
+			remove(event.getId());
+		}
+		else {
+			index(event.getProduct());
+		}
+	}
+
+	public void index(ProductDTO product) {
+		long[] categories = toArray(product.getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toList()));
+		lock.writeLock().lock();
+		try {
+			put(product.getId(), product.getName(), product.getPrice(), product.getDate(), categories);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			delete(id);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Conta os produtos de cada faixa de preco e de data. categoryId nulo e nome
+	 * vazio nao filtram, como na listagem paginada.
+	 */
+	public ProductFacetsDTO facets(Long categoryId, String name) {
+		String needle = name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+		long now = System.currentTimeMillis();
+		long[] dateLimits = new long[dateDays.length];
+		for (int i = 0; i < dateDays.length; i++) {
+			dateLimits[i] = now - TimeUnit.DAYS.toMillis(dateDays[i]);
+		}
+		long[] priceCounts = new long[priceEdges.length + 1];
+		long[] dateCounts = new long[dateDays.length + 1];
+		long total = 0;
+
+		lock.readLock().lock();
+		try {
+			BitSet scope = categoryId == null ? null : categoryRows.getOrDefault(categoryId, new BitSet());
+			int row = scope == null ? 0 : scope.nextSetBit(0);
+			while (row >= 0 && row < size) {
+				if (needle.isEmpty() || names[row].contains(needle)) {
+					total++;
+					if (!Double.isNaN(prices[row])) {
+						priceCounts[priceBucket(prices[row])]++;
+					}
+					if (dates[row] != NO_DATE) {
+						dateCounts[dateBucket(dates[row], dateLimits)]++;
+					}
+				}
+				row = scope == null ? row + 1 : scope.nextSetBit(row + 1);
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		return new ProductFacetsDTO(total, priceBuckets(priceCounts), dateBuckets(dateCounts, dateLimits));
+	}
+
+	// Indice da faixa [edge[i-1], edge[i]) que contem o preco
+	private int priceBucket(double price) {
+		int i = Arrays.binarySearch(priceEdges, price);
+		return i >= 0 ? i + 1 : -(i + 1);
+	}
+
+	// Faixa 0 e a mais recente; datas futuras tambem caem nela
+	private static int dateBucket(long date, long[] limits) {
+		for (int i = 0; i < limits.length; i++) {
+			if (date >= limits[i]) {
+				return i;
+			}
+		}
+		return limits.length;
+	}
+
+	private List<PriceBucketDTO> priceBuckets(long[] counts) {
+		List<PriceBucketDTO> buckets = new ArrayList<>(counts.length);
+		for (int i = 0; i < counts.length; i++) {
+			Double min = i == 0 ? null : priceEdges[i - 1];
+			Double max = i == priceEdges.length ? null : priceEdges[i];
+			buckets.add(new PriceBucketDTO(min, max, counts[i]));
+		}
+		return buckets;
+	}
+
+	private static List<DateBucketDTO> dateBuckets(long[] counts, long[] limits) {
+		List<DateBucketDTO> buckets = new ArrayList<>(counts.length);
+		for (int i = 0; i < counts.length; i++) {
+			Instant from = i == limits.length ? null : Instant.ofEpochMilli(limits[i]);
+			Instant to = i == 0 ? null : Instant.ofEpochMilli(limits[i - 1]);
+			buckets.add(new DateBucketDTO(from, to, counts[i]));
+		}
+		return buckets;
+	}
+
+	private void put(Long id, String name, Double price, Instant date, long[] categories) {
+		Integer position = positions.get(id);
+		int row;
+		if (position != null) {
+			row = position;
+			setCategoryBits(row, false);
+		}
+		else {
+			ensureCapacity(size + 1);
+			row = size++;
+			positions.put(id, row);
+		}
+		ids[row] = id;
+		prices[row] = price == null ? Double.NaN : price;
+		dates[row] = date == null ? NO_DATE : date.toEpochMilli();
+		names[row] = name == null ? "" : name.toLowerCase(Locale.ROOT);
+		rowCategories[row] = categories;
+		setCategoryBits(row, true);
+	}
+
+	// Remove trocando pela ultima posicao, sem deslocar o resto dos arrays
+	private void delete(Long id) {
+		Integer position = positions.remove(id);
+		if (position == null) {
+			return;
+		}
+		int row = position;
+		int last = size - 1;
+		setCategoryBits(row, false);
+		if (row != last) {
+			setCategoryBits(last, false);
+			ids[row] = ids[last];
+			prices[row] = prices[last];
+			dates[row] = dates[last];
+			names[row] = names[last];
+			rowCategories[row] = rowCategories[last];
+			setCategoryBits(row, true);
+			positions.put(ids[row], row);
+		}
+		names[last] = null;
+		rowCategories[last] = null;
+		size--;
+	}
+
+	private void setCategoryBits(int row, boolean value) {
+		for (long categoryId : rowCategories[row]) {
+			BitSet rows = categoryRows.computeIfAbsent(categoryId, k -> new BitSet());
+			rows.set(row, value);
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= ids.length) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, ids.length * 2);
+		ids = Arrays.copyOf(ids, newCapacity);
+		prices = Arrays.copyOf(prices, newCapacity);
+		dates = Arrays.copyOf(dates, newCapacity);
+		names = Arrays.copyOf(names, newCapacity);
+		rowCategories = Arrays.copyOf(rowCategories, newCapacity);
+	}
+
+	private static long[] toArray(List<Long> categoryIds) {
+		if (categoryIds.isEmpty()) {
+			return NO_CATEGORIES;
+		}
+		return categoryIds.stream().mapToLong(Long::longValue).toArray();
+	}
+
+}
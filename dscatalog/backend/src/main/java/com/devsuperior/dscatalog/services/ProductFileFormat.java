@@ -0,0 +1,38 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+
+/**
+ * Formatos de arquivo aceitos pela exportacao e importacao de produtos.
+ */
+public enum ProductFileFormat {
+
+	NDJSON("application/x-ndjson", "ndjson"),
+	CSV("text/csv", "csv");
+
+	private final String contentType;
+	private final String extension;
+
+	ProductFileFormat(String contentType, String extension) {
+		this.contentType = contentType;
+		this.extension = extension;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	public static ProductFileFormat of(String name) {
+		for (ProductFileFormat format : values()) {
+			if (format.extension.equalsIgnoreCase(name) || format.contentType.equalsIgnoreCase(name)) {
+				return format;
+			}
+		}
+		throw new BadRequestException("Unsupported format: " + name);
+	}
+
+}
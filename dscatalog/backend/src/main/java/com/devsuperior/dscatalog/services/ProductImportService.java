@@ -0,0 +1,252 @@
+package com.devsuperior.dscatalog.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ImportReportDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Importa produtos de um arquivo NDJSON ou CSV lido como stream. Cada linha e
+ * validada isoladamente e as validas sao gravadas em blocos de tamanho fixo,
+ * cada bloco na sua propria transacao: uma linha ruim so e rejeitada, sem
+ * desfazer o que ja foi gravado. A leitura do proximo bloco so acontece depois
+ * do commit do anterior, entao a memoria fica constante.
+ */
+@Service
+public class ProductImportService {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+	static final int CHUNK_SIZE = 500;
+
+	private final ProductService productService;
+	private final CategoryRepository categoryRepository;
+	private final Validator validator;
+	private final ObjectMapper objectMapper;
+
+	public ProductImportService(ProductService productService, 
+			CategoryRepository categoryRepository,
+			Validator validator,
+			ObjectMapper objectMapper) {
+		this.productService = productService;
+		this.categoryRepository = categoryRepository;
+		this.validator = validator;
+		this.objectMapper = objectMapper;
+	}
+
+	public ImportReportDTO importProducts(ProductFileFormat format, InputStream in) throws IOException {
+		// As categorias sao resolvidas uma unica vez para o arquivo inteiro
+		Set<Long> categoryIds = categoryRepository.findAll().stream()
+				.map(Category::getId)
+				.collect(Collectors.toSet());
+
+		ImportReportDTO report = new ImportReportDTO();
+		List<ProductDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+		List<Long> chunkRows = new ArrayList<>(CHUNK_SIZE);
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		RowParser parser = format == ProductFileFormat.CSV ? new CsvParser(reader) : new NdjsonParser(reader);
+		long row = 0;
+		ParsedRow parsed;
+		while ((parsed = parser.next()) != null) {
+			row++;
+			List<String> errors = parsed.errors;
+			if (errors.isEmpty()) {
+				errors = validate(parsed.product, categoryIds);
+			}
+			if (!errors.isEmpty()) {
+				report.addRejected(row, errors);
+				continue;
+			}
+			chunk.add(parsed.product);
+			chunkRows.add(row);
+			if (chunk.size() == CHUNK_SIZE) {
+				commit(chunk, chunkRows, report);
+			}
+		}
+		commit(chunk, chunkRows, report);
+		log.info("Product import finished: {} accepted, {} rejected", report.getAccepted(), report.getRejected());
+		return report;
+	}
+
+	private List<String> validate(ProductDTO dto, Set<Long> categoryIds) {
+		List<String> errors = new ArrayList<>();
+		for (ConstraintViolation<ProductDTO> violation : validator.validate(dto)) {
+			errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+		}
+		for (CategoryDTO category : dto.getCategories()) {
+			if (!categoryIds.contains(category.getId())) {
+				errors.add("categories: category " + category.getId() + " not found");
+			}
+		}
+		return errors;
+	}
+
+	// Se o bloco falhar no banco, regrava linha a linha para isolar as culpadas
+	private void commit(List<ProductDTO> chunk, List<Long> chunkRows, ImportReportDTO report) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+		try {
+			productService.insertBatch(chunk);
+			report.addAccepted(chunk.size());
+		}
+		catch (RuntimeException e) {
+			log.warn("Import chunk of {} rows failed, retrying row by row: {}", chunk.size(), e.getMessage());
+			for (int i = 0; i < chunk.size(); i++) {
+				try {
+					productService.insertBatch(List.of(chunk.get(i)));
+					report.addAccepted(1);
+				}
+				catch (RuntimeException rowException) {
+					report.addRejected(chunkRows.get(i), List.of(String.valueOf(rowException.getMessage())));
+				}
+			}
+		}
+		chunk.clear();
+		chunkRows.clear();
+	}
+
+	private static class ParsedRow {
+		private final ProductDTO product;
+		private final List<String> errors;
+
+		ParsedRow(ProductDTO product, List<String> errors) {
+			this.product = product;
+			this.errors = errors;
+		}
+	}
+
+	private interface RowParser {
+		// Devolve null no fim do arquivo
+		ParsedRow next() throws IOException;
+	}
+
+	private class NdjsonParser implements RowParser {
+		private final BufferedReader reader;
+
+		NdjsonParser(BufferedReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public ParsedRow next() throws IOException {
+			String line;
+			do {
+				line = reader.readLine();
+			} while (line != null && line.isBlank());
+			if (line == null) {
+				return null;
+			}
+			try {
+				ProductDTO dto = objectMapper.readValue(line, ProductDTO.class);
+				// "null" e JSON valido e vira null; outros valores que nao sao objeto ja falham no readValue
+				if (dto == null) {
+					return new ParsedRow(null, List.of("expected a JSON object"));
+				}
+				dto.setId(null);
+				if (dto.getCategories() == null) {
+					dto.setCategories(new ArrayList<>());
+				}
+				return new ParsedRow(dto, List.of());
+			}
+			catch (JsonProcessingException e) {
+				return new ParsedRow(null, List.of("invalid JSON: " + e.getOriginalMessage()));
+			}
+		}
+	}
+
+	private static class CsvParser implements RowParser {
+		private final BufferedReader reader;
+		private Map<String, Integer> columns;
+
+		CsvParser(BufferedReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public ParsedRow next() throws IOException {
+			if (columns == null) {
+				List<String> header = ProductCsv.readRecord(reader);
+				if (header == null) {
+					return null;
+				}
+				columns = new HashMap<>();
+				for (int i = 0; i < header.size(); i++) {
+					columns.put(header.get(i).trim(), i);
+				}
+			}
+			List<String> record;
+			do {
+				record = ProductCsv.readRecord(reader);
+			} while (record != null && record.size() == 1 && record.get(0).isBlank());
+			if (record == null) {
+				return null;
+			}
+
+			List<String> errors = new ArrayList<>();
+			ProductDTO dto = new ProductDTO();
+			dto.setName(field(record, "name"));
+			dto.setDescription(field(record, "description"));
+			dto.setImgUrl(field(record, "imgUrl"));
+			try {
+				String price = field(record, "price");
+				dto.setPrice(price == null ? null : Double.valueOf(price));
+			}
+			catch (NumberFormatException e) {
+				errors.add("price: invalid number");
+			}
+			try {
+				String date = field(record, "date");
+				dto.setDate(date == null ? null : Instant.parse(date));
+			}
+			catch (RuntimeException e) {
+				errors.add("date: invalid ISO-8601 instant");
+			}
+			String categories = field(record, "categoryIds");
+			if (categories != null) {
+				try {
+					for (String id : categories.split("\\" + ProductCsv.CATEGORY_SEPARATOR)) {
+						dto.getCategories().add(new CategoryDTO(Long.valueOf(id.trim()), null));
+					}
+				}
+				catch (NumberFormatException e) {
+					errors.add("categoryIds: invalid id");
+				}
+			}
+			return new ParsedRow(dto, errors);
+		}
+
+		private String field(List<String> record, String column) {
+			Integer index = columns.get(column);
+			if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+				return null;
+			}
+			return record.get(index);
+		}
+	}
+
+}
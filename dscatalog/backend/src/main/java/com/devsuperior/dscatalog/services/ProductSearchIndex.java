@@ -0,0 +1,250 @@
+package com.devsuperior.dscatalog.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+
+/**
+ * Indice invertido em memoria sobre nome e descricao dos produtos, com ranking
+ * BM25. E montado na subida da aplicacao e atualizado a partir dos eventos de
+ * escrita do ProductService, entao as buscas nao vao ao banco.
+ */
+@Component
+public class ProductSearchIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+	
+	// Termos do nome contam como se aparecessem varias vezes no documento
+	private static final int NAME_BOOST = 3;
+	private static final int REBUILD_PAGE_SIZE = 500;
+
+	private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+	private final ProductRepository productRepository;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+	private final Map<Long, Document> documents = new HashMap<>();
+	private long totalLength;
+
+	public ProductSearchIndex(ProductRepository productRepository) {
+		this.productRepository = productRepository;
+	}
+
+	// Le do primario, como as cargas de cache (ver PrimaryReads)
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		PrimaryReads.run(this::load);
+	}
+
+	private void load() {
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			documents.clear();
+			totalLength = 0;
+			// Mesmo formato dos eventos: o DTO traz as categorias, usadas no filtro da busca
+			Page<Long> page;
+			int number = 0;
+			do {
+				page = productRepository.searchIds("", PageRequest.of(number++, REBUILD_PAGE_SIZE, Sort.by("id")));
+				for (Product entity : productRepository.findProductsWithCategories(page.getContent())) {
+					add(new ProductDTO(entity, entity.getCategories()));
+				}
+			} while (page.hasNext());
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+		log.info("Product search index built with {} documents and {} terms", documents.size(), postings.size());
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		if (event.isDeleted()) {
+			remove(event.getId());
+		}
+		else {
+			index(event.getProduct());
+		}
+	}
+
+	public void index(ProductDTO product) {
+		lock.writeLock().lock();
+		try {
+			delete(product.getId());
+			add(product);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			delete(id);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// categoryId nulo busca em todas as categorias
+	public List<ProductDTO> search(String query, Long categoryId, int limit) {
+		Set<String> terms = new LinkedHashSet<>(tokenize(query));
+		if (terms.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		lock.readLock().lock();
+		try {
+			if (documents.isEmpty()) {
+				return Collections.emptyList();
+			}
+			int n = documents.size();
+			double avgLength = (double) totalLength / n;
+
+			Map<Long, Double> scores = new HashMap<>();
+			for (String term : terms) {
+				Map<Long, Integer> docs = postings.get(term);
+				if (docs == null) {
+					continue;
+				}
+				double idf = Math.log(1.0 + (n - docs.size() + 0.5) / (docs.size() + 0.5));
+				for (Map.Entry<Long, Integer> posting : docs.entrySet()) {
+					Document document = documents.get(posting.getKey());
+					if (categoryId != null && !document.categoryIds.contains(categoryId)) {
+						continue;
+					}
+					int tf = posting.getValue();
+					int length = document.length;
+					double score = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+					scores.merge(posting.getKey(), score, Double::sum);
+				}
+			}
+
+			// Mantem apenas os "limit" melhores num heap minimo
+			Comparator<Map.Entry<Long, Double>> byScore = Map.Entry.comparingByValue();
+			PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(limit + 1, byScore);
+			for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+				top.offer(entry);
+				if (top.size() > limit) {
+					top.poll();
+				}
+			}
+
+			List<ProductDTO> result = new ArrayList<>(top.size());
+			while (!top.isEmpty()) {
+				result.add(documents.get(top.poll().getKey()).product);
+			}
+			Collections.reverse(result);
+			return result;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		if (text == null) {
+			return tokens;
+		}
+		String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+		for (String token : NON_WORD.split(normalized.toLowerCase())) {
+			if (token.length() > 1) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	// Os dois metodos abaixo esperam o write lock
+	private void add(ProductDTO product) {
+		Map<String, Integer> frequencies = new HashMap<>();
+		for (String token : tokenize(product.getName())) {
+			frequencies.merge(token, NAME_BOOST, Integer::sum);
+		}
+		for (String token : tokenize(product.getDescription())) {
+			frequencies.merge(token, 1, Integer::sum);
+		}
+		int length = 0;
+		for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+			postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(product.getId(), entry.getValue());
+			length += entry.getValue();
+		}
+		documents.put(product.getId(), new Document(product, frequencies.keySet(), length));
+		totalLength += length;
+	}
+
+	private void delete(Long id) {
+		Document old = documents.remove(id);
+		if (old == null) {
+			return;
+		}
+		for (String term : old.terms) {
+			Map<Long, Integer> docs = postings.get(term);
+			docs.remove(id);
+			if (docs.isEmpty()) {
+				postings.remove(term);
+			}
+		}
+		totalLength -= old.length;
+	}
+
+	private static class Document {
+		private final ProductDTO product;
+		private final Set<String> terms;
+		private final Set<Long> categoryIds;
+		private final int length;
+
+		Document(ProductDTO product, Set<String> terms, int length) {
+			this.product = product;
+			this.terms = terms;
+			this.categoryIds = product.getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toSet());
+			this.length = length;
+		}
+	}
+
+}
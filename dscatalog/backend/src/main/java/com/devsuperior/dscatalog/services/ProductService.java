@@ -1,72 +1,210 @@
 package com.devsuperior.dscatalog.services;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductFacetsDTO;
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
 import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.CategoryStats;
 import com.devsuperior.dscatalog.entities.Product;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.repositories.EntityVersion;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
 
 @Service
 public class ProductService {
 
+	// A cada quantos produtos o lote e descarregado e o contexto de persistencia limpo
+	private static final int BATCH_FLUSH_SIZE = 500;
+
 	private final ProductRepository productRepository;
 	private final CategoryRepository categoryRepository;
+	private final ProductSearchIndex searchIndex;
+	private final ProductFacetIndex facetIndex;
+	private final ProductCache productCache;
+	private final CategoryStatsService categoryStatsService;
+	private final ApplicationEventPublisher eventPublisher;
+	private final EntityManager entityManager;
+	private final CategorySnapshot categorySnapshot;
+	private final ProductViewCounter productViewCounter;
 
-	public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository) {
+	public ProductService(ProductRepository productRepository, 
+			CategoryRepository categoryRepository,
+			ProductSearchIndex searchIndex,
+			ProductFacetIndex facetIndex,
+			ProductCache productCache,
+			CategoryStatsService categoryStatsService,
+			ApplicationEventPublisher eventPublisher,
+			EntityManager entityManager,
+			CategorySnapshot categorySnapshot,
+			ProductViewCounter productViewCounter) {
 		this.productRepository = productRepository;
 		this.categoryRepository = categoryRepository;
+		this.searchIndex = searchIndex;
+		this.facetIndex = facetIndex;
+		this.productCache = productCache;
+		this.categoryStatsService = categoryStatsService;
+		this.eventPublisher = eventPublisher;
+		this.entityManager = entityManager;
+		this.categorySnapshot = categorySnapshot;
+		this.productViewCounter = productViewCounter;
+	}
+
+	@Transactional(readOnly = true)
+	public Page<ProductDTO> findAllPaged(Long categoryId, String name, Pageable pageable) {
+		Long category = categoryFilter(categoryId);
+		Page<Long> ids = category == null
+				? productRepository.searchIds(nameFilter(name), pageable)
+				: productRepository.searchIdsByCategory(category, nameFilter(name), pageable);
+		List<ProductDTO> content = findWithCategories(ids.getContent());
+		return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
 	}
 
 	@Transactional(readOnly = true)
-	public Page<ProductDTO> findAllPaged(Pageable pageable) {
-		Page<Product> list = productRepository.findAll(pageable);
-		return list.map(ProductDTO::new);
+	public Page<ProductSummaryDTO> findSummariesPaged(Long categoryId, String name, Pageable pageable) {
+		Long category = categoryFilter(categoryId);
+		return category == null
+				? productRepository.searchSummaries(nameFilter(name), pageable)
+				: productRepository.searchSummariesByCategory(category, nameFilter(name), pageable);
 	}
 
 	@Transactional(readOnly = true)
+	public CursorPageDTO<ProductDTO> findAllByCursor(String after, int size) {
+		Pageable limit = KeysetCursor.limit(size);
+		List<Long> ids;
+		if (after == null || after.isBlank()) {
+			ids = productRepository.findIdsOrderByName(limit);
+		}
+		else {
+			KeysetCursor cursor = KeysetCursor.decode(after);
+			ids = productRepository.findIdsOrderByNameAfter(cursor.getKey(), cursor.getId(), limit);
+		}
+		return KeysetCursor.page(findWithCategories(ids), size, ProductDTO::getName, ProductDTO::getId);
+	}
+
+	// Atendido pelo indice em memoria, sem transacao e sem ir ao banco
+	public List<ProductDTO> search(String query, Long categoryId, int limit) {
+		if (limit < 1 || limit > 100) {
+			throw new BadRequestException("limit must be between 1 and 100");
+		}
+		Long category = (categoryId == null || categoryId == 0L) ? null : categoryId;
+		return searchIndex.search(query, category, limit);
+	}
+
+	// Contado sobre a copia colunar em memoria, com o mesmo filtro da listagem
+	public ProductFacetsDTO findFacets(Long categoryId, String name) {
+		return facetIndex.facets(categoryFilter(categoryId), nameFilter(name));
+	}
+
+	// Sem transacao propria: um acerto no cache nao precisa de conexao
 	public ProductDTO findById(Long id) {
-		Optional<Product> obj = productRepository.findById(id);
-		Product entity = obj.orElseThrow(() -> new ResourceNotFoundException(String.format("id %d not found", id)));
-		return new ProductDTO(entity, entity.getCategories());
+		return productCache.get(id, this::loadById);
+	}
+
+	public void countView(Long id) {
+		productViewCounter.increment(id);
 	}
 
 	@Transactional
 	public ProductDTO insert(ProductDTO dto) {
 		Product entity = new Product();
-		copyDtoToEntity(dto, entity);
+		copyDtoToEntity(dto, entity, new HashMap<>());
 		entity = productRepository.save(entity);
-		return new ProductDTO(entity);
+		categoryStatsService.productChanged(Set.of(), null, null, categoryIds(entity), entity.getPrice(), entity.getDate());
+		ProductDTO result = new ProductDTO(entity, entity.getCategories());
+		eventPublisher.publishEvent(ProductChangedEvent.saved(result));
+		return result;
+	}
+
+	// Os ids sao devolvidos na mesma ordem da lista recebida
+	@Transactional
+	public List<Long> insertBatch(List<ProductDTO> dtos) {
+		checkCategoriesExist(dtos);
+
+		List<Long> ids = new ArrayList<>(dtos.size());
+		List<ProductDTO> saved = new ArrayList<>(dtos.size());
+		Map<Long, Category> categories = new HashMap<>();
+		Map<Long, CategoryStats> stats = new HashMap<>();
+		for (int i = 0; i < dtos.size(); i++) {
+			Product entity = new Product();
+			copyDtoToEntity(dtos.get(i), entity, categories);
+			entityManager.persist(entity);
+			ids.add(entity.getId());
+			saved.add(new ProductDTO(entity, entity.getCategories()));
+			for (Long categoryId : categoryIds(entity)) {
+				stats.computeIfAbsent(categoryId, CategoryStats::new).add(entity.getPrice(), entity.getDate());
+			}
+
+			if ((i + 1) % BATCH_FLUSH_SIZE == 0) {
+				entityManager.flush();
+				entityManager.clear();
+				categories.clear();
+			}
+		}
+		categoryStatsService.productsAdded(stats);
+		saved.forEach(dto -> eventPublisher.publishEvent(ProductChangedEvent.saved(dto)));
+		return ids;
 	}
 
 	@Transactional
 	public ProductDTO update(Long id, ProductDTO dto) {
 		try {
 			Product entity = productRepository.getOne(id);
-			copyDtoToEntity(dto, entity);
+			Set<Long> oldCategories = categoryIds(entity);
+			Double oldPrice = entity.getPrice();
+			Instant oldDate = entity.getDate();
+			copyDtoToEntity(dto, entity, new HashMap<>());
+			// Mudar so as categorias altera apenas a tabela de juncao e nao dispara o @PreUpdate;
+			// sem isso o ETag continuaria o mesmo
+			entity.setUpdatedAt(Instant.now());
 			entity = productRepository.save(entity);
-			return new ProductDTO(entity);
+			categoryStatsService.productChanged(oldCategories, oldPrice, oldDate,
+					categoryIds(entity), entity.getPrice(), entity.getDate());
+			ProductDTO result = new ProductDTO(entity, entity.getCategories());
+			eventPublisher.publishEvent(ProductChangedEvent.saved(result));
+			return result;
 		} catch (EntityNotFoundException e) {
 			throw new ResourceNotFoundException(String.format("id %d not found!", id));
 		}
 	}
 
+	// O produto e lido antes para tirar preco e data das estatisticas das categorias
+	@Transactional
 	public void delete(Long id) {
 		try {
+			Optional<Product> obj = productRepository.findWithCategoriesById(id);
 			productRepository.deleteById(id);
+			productRepository.flush();
+			obj.ifPresent(entity -> categoryStatsService.productChanged(categoryIds(entity), entity.getPrice(),
+					entity.getDate(), Set.of(), null, null));
+			eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
 		} catch (EmptyResultDataAccessException e) {
 			throw new ResourceNotFoundException(String.format("id %d not found!", id));
 		} catch (DataIntegrityViolationException e) {
@@ -75,7 +213,68 @@ public class ProductService {
 
 	}
 
-	private void copyDtoToEntity(ProductDTO dto, Product entity) {
+	// Usa o DTO em cache quando existe; senao le do primario so as colunas de auditoria e o contador.
+	// O DTO traz os nomes das categorias e as visualizacoes gravadas, entao os dois entram no tag
+	public Optional<String> findVersion(Long id) {
+		ProductDTO cached = productCache.getIfPresent(id);
+		Optional<String> version = cached != null
+				? Optional.of(EntityVersion.tag(id, cached.getLastModified()) + "-" + cached.getViewCount())
+				: PrimaryReads.call(() -> productRepository.findVersionById(id)).map(EntityVersion::getTag);
+		return version.map(tag -> tag + "-" + categorySnapshot.findCollectionVersion());
+	}
+
+	private ProductDTO loadById(Long id) {
+		Optional<Product> obj = productRepository.findWithCategoriesById(id);
+		Product entity = obj.orElseThrow(() -> new ResourceNotFoundException(String.format("id %d not found", id)));
+		return new ProductDTO(entity, entity.getCategories());
+	}
+
+	private static Set<Long> categoryIds(Product entity) {
+		return entity.getCategories().stream().map(Category::getId).collect(Collectors.toSet());
+	}
+
+	private static Long categoryFilter(Long categoryId) {
+		return (categoryId == null || categoryId == 0L) ? null : categoryId;
+	}
+
+	private static String nameFilter(String name) {
+		return name == null ? "" : name.trim();
+	}
+
+	// Mantem a ordem dos ids, que e a ordem da pagina
+	private List<ProductDTO> findWithCategories(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, Product> products = productRepository.findProductsWithCategories(ids).stream()
+				.collect(Collectors.toMap(Product::getId, Function.identity()));
+		return ids.stream()
+				.map(products::get)
+				.filter(Objects::nonNull)
+				.map(entity -> new ProductDTO(entity, entity.getCategories()))
+				.collect(Collectors.toList());
+	}
+
+	// Uma unica consulta para validar todas as categorias citadas no lote
+	private void checkCategoriesExist(List<ProductDTO> dtos) {
+		Set<Long> ids = dtos.stream()
+				.flatMap(dto -> dto.getCategories().stream())
+				.map(CategoryDTO::getId)
+				.collect(Collectors.toSet());
+		if (ids.contains(null)) {
+			throw new BadRequestException("category id is required");
+		}
+		Set<Long> found = categoryRepository.findAllById(ids).stream()
+				.map(Category::getId)
+				.collect(Collectors.toSet());
+		ids.removeAll(found);
+		if (!ids.isEmpty()) {
+			throw new BadRequestException(String.format("categories not found: %s", ids));
+		}
+	}
+
+	// As referencas de categoria ficam no mapa para nao repetir getOne a cada produto
+	private void copyDtoToEntity(ProductDTO dto, Product entity, Map<Long, Category> categories) {
 
 		// BeanUtils.copyProperties(dto, entity);
 		entity.setName(dto.getName());
@@ -86,7 +285,7 @@ public class ProductService {
 
 		entity.getCategories().clear();
 		for (CategoryDTO catDto : dto.getCategories()) {
-			Category category = categoryRepository.getOne(catDto.getId());
+			Category category = categories.computeIfAbsent(catDto.getId(), categoryRepository::getOne);
 			entity.getCategories().add(category);
 		}
 
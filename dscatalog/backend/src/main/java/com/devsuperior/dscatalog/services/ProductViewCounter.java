@@ -0,0 +1,163 @@
+package com.devsuperior.dscatalog.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Contagem de visualizacoes por produto. Cada visualizacao so incrementa um
+ * LongAdder em memoria (sem lock e sem ir ao banco); de tempos em tempos, e no
+ * desligamento, as diferencas acumuladas viram um lote de UPDATEs somando em
+ * tb_product.view_count. Se o lote falhar, a diferenca fica para a proxima vez.
+ * O ProductDTO mostra o total ja gravado, o mesmo que entra no ETag; depois de
+ * cada lote os produtos gravados saem do ProductCache.
+ */
+@Component
+public class ProductViewCounter {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductViewCounter.class);
+
+	private static final int BATCH_SIZE = 500;
+
+	private static final String SQL = "UPDATE tb_product SET view_count = view_count + ? WHERE id = ?";
+
+	private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+	// Removidos do mapa no ultimo flush; so e acessado dentro do flush
+	private List<Map.Entry<Long, Counter>> retired = List.of();
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ProductCache productCache;
+	private final ScheduledExecutorService scheduler;
+
+	public ProductViewCounter(DataSource dataSource, PlatformTransactionManager transactionManager,
+			ProductCache productCache, @Value("${app.product-views.flush-interval:5s}") Duration flushInterval) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.productCache = productCache;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "product-views-flush");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long millis = flushInterval.toMillis();
+		scheduler.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+	}
+
+	public void increment(Long id) {
+		Counter counter = counters.get(id);
+		if (counter == null) {
+			counter = counters.computeIfAbsent(id, key -> new Counter());
+		}
+		counter.views.increment();
+	}
+
+	// Visualizacoes ja contadas e ainda nao gravadas no banco
+	public long pending(Long id) {
+		Counter counter = counters.get(id);
+		return counter == null ? 0L : counter.views.sum() - counter.flushed;
+	}
+
+	/**
+	 * Grava as diferencas acumuladas e devolve quantos produtos foram
+	 * atualizados. O total de cada contador so cresce, entao o que for contado
+	 * durante a gravacao entra no proximo lote.
+	 */
+	public synchronized int flush() {
+		List<Snapshot> snapshots = new ArrayList<>();
+		retired.forEach(entry -> snapshot(entry.getKey(), entry.getValue(), snapshots));
+		counters.forEach((id, counter) -> snapshot(id, counter, snapshots));
+
+		// Ordenado por id para dois servidores nao travarem as mesmas linhas em ordem diferente
+		Map<Long, Long> deltas = new TreeMap<>();
+		snapshots.forEach(snapshot -> deltas.merge(snapshot.id, snapshot.total - snapshot.counter.flushed, Long::sum));
+		if (!deltas.isEmpty()) {
+			List<Object[]> args = new ArrayList<>(deltas.size());
+			deltas.forEach((id, delta) -> args.add(new Object[] { delta, id }));
+			transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(SQL, args, BATCH_SIZE,
+					(ps, arg) -> {
+						ps.setLong(1, (Long) arg[0]);
+						ps.setLong(2, (Long) arg[1]);
+					}));
+			snapshots.forEach(snapshot -> snapshot.counter.flushed = snapshot.total);
+			// Ja depois do commit: a proxima leitura recarrega o produto com o total gravado
+			deltas.keySet().forEach(productCache::invalidate);
+		}
+		retire();
+		return deltas.size();
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		scheduler.shutdown();
+		scheduler.awaitTermination(10, TimeUnit.SECONDS);
+		flushQuietly();
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		}
+		catch (RuntimeException e) {
+			log.warn("Could not flush product view counts, will retry on the next run", e);
+		}
+	}
+
+	private static void snapshot(Long id, Counter counter, List<Snapshot> snapshots) {
+		long total = counter.views.sum();
+		if (total > counter.flushed) {
+			snapshots.add(new Snapshot(id, counter, total));
+		}
+	}
+
+	/**
+	 * Tira do mapa os contadores sem nada pendente, para o mapa nao crescer com
+	 * todo produto ja visto. Uma thread pode ter pego o contador logo antes da
+	 * remocao, entao ele ainda entra no proximo flush antes de ser descartado.
+	 */
+	private void retire() {
+		List<Map.Entry<Long, Counter>> drained = new ArrayList<>();
+		counters.forEach((id, counter) -> {
+			if (counter.views.sum() == counter.flushed && counters.remove(id, counter)) {
+				drained.add(Map.entry(id, counter));
+			}
+		});
+		retired = drained;
+	}
+
+	private static class Counter {
+		private final LongAdder views = new LongAdder();
+		// So e alterado dentro do flush (synchronized)
+		private volatile long flushed;
+	}
+
+	private static class Snapshot {
+		private final Long id;
+		private final Counter counter;
+		private final long total;
+
+		Snapshot(Long id, Counter counter, long total) {
+			this.id = id;
+			this.counter = counter;
+			this.total = total;
+		}
+	}
+
+}
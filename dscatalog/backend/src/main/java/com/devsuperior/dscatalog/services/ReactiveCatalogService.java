@@ -0,0 +1,75 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.repositories.ProductReactiveRepository;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Leituras da API reativa. Nenhum metodo bloqueia: produtos vem do R2DBC e
+ * categorias da copia em memoria do CategorySnapshot.
+ */
+@Service
+public class ReactiveCatalogService {
+
+	public static final int MAX_PAGE_SIZE = 1000;
+
+	// Propriedades aceitas no sort e a coluna correspondente
+	private static final Map<String, String> SORT_COLUMNS = Map.of(
+			"id", "id", "name", "name", "price", "price", "date", "date");
+
+	private final ProductReactiveRepository productRepository;
+	private final CategorySnapshot categorySnapshot;
+
+	public ReactiveCatalogService(ProductReactiveRepository productRepository, CategorySnapshot categorySnapshot) {
+		this.productRepository = productRepository;
+		this.categorySnapshot = categorySnapshot;
+	}
+
+	// Os parametros sao validados na chamada, antes de a resposta comecar a ser escrita
+	public Flux<ProductDTO> findAllPaged(Long categoryId, String name, PageRequest pageRequest) {
+		checkSize(pageRequest);
+		Sort.Order order = pageRequest.getSort().stream().findFirst().orElse(Sort.Order.asc("id"));
+		String column = SORT_COLUMNS.get(order.getProperty());
+		if (column == null) {
+			throw new BadRequestException(String.format("sort by %s is not supported", order.getProperty()));
+		}
+		Long category = (categoryId == null || categoryId == 0L) ? null : categoryId;
+		return productRepository.search(category, name == null ? "" : name.trim(), column, order.isAscending(),
+				pageRequest.getOffset(), pageRequest.getPageSize());
+	}
+
+	public Mono<ProductDTO> findById(Long id) {
+		return productRepository.findById(id)
+				.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(String.format("id %d not found", id))));
+	}
+
+	public Flux<CategoryDTO> findAllCategories(PageRequest pageRequest) {
+		checkSize(pageRequest);
+		Page<CategoryDTO> page = categorySnapshot.findAllPaged(pageRequest);
+		return Flux.fromIterable(page.getContent());
+	}
+
+	public Mono<CategoryDTO> findCategoryById(Long id) {
+		return Mono.justOrEmpty(categorySnapshot.findById(id))
+				.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(String.format("id %d not found", id))));
+	}
+
+	private static void checkSize(PageRequest pageRequest) {
+		if (pageRequest.getPageSize() > MAX_PAGE_SIZE) {
+			throw new BadRequestException(String.format("size must be at most %d", MAX_PAGE_SIZE));
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+package com.devsuperior.dscatalog.services;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.devsuperior.dscatalog.dto.SlowQueryDTO;
+
+/**
+ * Log de consultas lentas alimentado pelo proxy JDBC (config.TimedDataSource).
+ * Acima do limite registra SQL, parametros, linhas, a requisicao HTTP e o
+ * metodo de servico em andamento e, para SELECT, o plano de execucao (H2 e
+ * PostgreSQL). Guarda as N mais lentas em memoria para o endpoint de admin.
+ * Os valores dos parametros podem ser dados pessoais (emails, hashes de senha),
+ * entao log e endpoint so mostram o tipo e o tamanho de cada um.
+ */
+@Component
+public class SlowQueryLog {
+
+	private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+	// O PostgreSQL escreve no plano os valores ligados aos parametros como literais
+	private static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+	// Metodo de servico em execucao na thread, mantido pelo ServiceMetricsAspect
+	private static final ThreadLocal<String> SERVICE_METHOD = new ThreadLocal<>();
+
+	private final long thresholdNanos;
+	private final int capacity;
+	private final boolean explain;
+	private final PriorityQueue<SlowQueryDTO> slowest;
+
+	public SlowQueryLog(@Value("${app.slow-query.threshold:200ms}") Duration threshold,
+			@Value("${app.slow-query.top:50}") int capacity,
+			@Value("${app.slow-query.explain:true}") boolean explain) {
+		this.thresholdNanos = threshold.toNanos();
+		this.capacity = capacity;
+		this.explain = explain;
+		this.slowest = new PriorityQueue<>(capacity + 1, Comparator.comparing(SlowQueryDTO::getDurationMillis));
+	}
+
+	public static String enterServiceMethod(String method) {
+		String previous = SERVICE_METHOD.get();
+		SERVICE_METHOD.set(method);
+		return previous;
+	}
+
+	public static void exitServiceMethod(String previous) {
+		if (previous == null) {
+			SERVICE_METHOD.remove();
+		}
+		else {
+			SERVICE_METHOD.set(previous);
+		}
+	}
+
+	public boolean isSlow(long elapsedNanos) {
+		return elapsedNanos >= thresholdNanos;
+	}
+
+	// Chamado na thread que executou o comando, com a conexao original (sem proxy)
+	public void record(String sql, List<Object> parameters, long elapsedNanos, long rows, Connection connection) {
+		if (!isSlow(elapsedNanos)) {
+			return;
+		}
+		long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+		String plan = explain && isSelect(sql) ? explain(sql, parameters, connection) : null;
+		SlowQueryDTO entry = new SlowQueryDTO(sql,
+				parameters.stream().map(SlowQueryLog::mask).collect(Collectors.toList()),
+				millis, rows, currentRequest(), SERVICE_METHOD.get(), plan, Instant.now());
+		log.warn("Slow query: {} ms, {} rows, request [{}], service [{}]\n{}\nparameters {}{}",
+				millis, rows, entry.getRequest(), entry.getServiceMethod(), sql, entry.getParameters(),
+				plan == null ? "" : "\nplan:\n" + plan);
+
+		synchronized (slowest) {
+			slowest.add(entry);
+			if (slowest.size() > capacity) {
+				slowest.poll();
+			}
+		}
+	}
+
+	public List<SlowQueryDTO> findSlowest() {
+		List<SlowQueryDTO> list;
+		synchronized (slowest) {
+			list = new ArrayList<>(slowest);
+		}
+		list.sort(Comparator.comparing(SlowQueryDTO::getDurationMillis).reversed());
+		return list;
+	}
+
+	public void clear() {
+		synchronized (slowest) {
+			slowest.clear();
+		}
+	}
+
+	private String explain(String sql, List<Object> parameters, Connection connection) {
+		try {
+			String product = connection.getMetaData().getDatabaseProductName();
+			if (!"H2".equals(product) && !"PostgreSQL".equals(product)) {
+				return null;
+			}
+			// EXPLAIN sem ANALYZE: mostra o plano sem executar a consulta de novo
+			try (PreparedStatement st = connection.prepareStatement("EXPLAIN " + sql)) {
+				for (int i = 0; i < parameters.size(); i++) {
+					st.setObject(i + 1, parameters.get(i));
+				}
+				StringBuilder plan = new StringBuilder();
+				try (ResultSet rs = st.executeQuery()) {
+					while (rs.next()) {
+						if (plan.length() > 0) {
+							plan.append('\n');
+						}
+						plan.append(rs.getString(1));
+					}
+				}
+				return LITERAL.matcher(plan).replaceAll("'?'");
+			}
+		}
+		catch (SQLException e) {
+			log.debug("Could not explain slow query: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	private static boolean isSelect(String sql) {
+		String command = sql.stripLeading();
+		return command.regionMatches(true, 0, "select", 0, 6) || command.regionMatches(true, 0, "with", 0, 4);
+	}
+
+	private static String currentRequest() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (!(attributes instanceof ServletRequestAttributes)) {
+			return null;
+		}
+		HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+		String query = request.getQueryString();
+		return request.getMethod() + " " + request.getRequestURI() + (query == null ? "" : "?" + query);
+	}
+
+	private static String mask(Object value) {
+		if (value == null) {
+			return "null";
+		}
+		if (value instanceof byte[]) {
+			return "<" + ((byte[]) value).length + " bytes>";
+		}
+		if (value instanceof CharSequence) {
+			return "<" + ((CharSequence) value).length() + " chars>";
+		}
+		return "<" + value.getClass().getSimpleName() + ">";
+	}
+
+}
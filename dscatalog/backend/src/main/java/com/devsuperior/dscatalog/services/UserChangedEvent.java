@@ -0,0 +1,19 @@
+package com.devsuperior.dscatalog.services;
+
+/**
+ * Publicado pelo UserService a cada alteracao ou remocao de usuario, inclusive
+ * troca de perfis. O cache de autenticacao o recebe depois do commit.
+ */
+public class UserChangedEvent {
+
+	private final Long id;
+
+	public UserChangedEvent(Long id) {
+		this.id = id;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.devsuperior.dscatalog.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.devsuperior.dscatalog.dto.CacheStatsDTO;
+import com.devsuperior.dscatalog.entities.Role;
+import com.devsuperior.dscatalog.entities.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Cache por email dos dados de autenticacao (hash da senha e perfis), limitado
+ * em tamanho e com TTL. Guarda uma copia imutavel e monta um UserDetails novo a
+ * cada leitura: o Spring Security apaga a senha do objeto depois de autenticar,
+ * o que estragaria uma instancia compartilhada.
+ */
+@Component
+public class UserDetailsCache {
+
+	public static final String NAME = "users";
+
+	private final Cache<String, Entry> cache;
+
+	public UserDetailsCache(@Value("${app.user-cache.max-size:10000}") long maxSize,
+			@Value("${app.user-cache.ttl:5m}") Duration ttl) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+	}
+
+	public UserDetails get(String email, Function<String, User> loader) {
+		return cache.get(email, key -> new Entry(PrimaryReads.call(() -> loader.apply(key)))).toUserDetails();
+	}
+
+	// A chave e o email, que pode ter mudado; por isso a busca e pelo id
+	public void invalidate(Long userId) {
+		cache.asMap().values().removeIf(entry -> entry.id.equals(userId));
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public CacheStatsDTO stats() {
+		return CaffeineCacheStats.of(NAME, cache);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onUserChanged(UserChangedEvent event) {
+		invalidate(event.getId());
+	}
+
+	private static final class Entry {
+
+		private final Long id;
+		private final String email;
+		private final String password;
+		private final List<String> authorities;
+
+		Entry(User entity) {
+			this.id = entity.getId();
+			this.email = entity.getEmail();
+			this.password = entity.getPassword();
+			this.authorities = entity.getRoles().stream().map(Role::getAuthority).collect(Collectors.toUnmodifiableList());
+		}
+
+		UserDetails toUserDetails() {
+			return org.springframework.security.core.userdetails.User.withUsername(email)
+					.password(password)
+					.authorities(authorities.toArray(new String[0]))
+					.build();
+		}
+	}
+
+}
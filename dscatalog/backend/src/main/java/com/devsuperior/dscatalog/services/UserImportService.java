@@ -0,0 +1,225 @@
+package com.devsuperior.dscatalog.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.devsuperior.dscatalog.dto.ImportReportDTO;
+import com.devsuperior.dscatalog.dto.RoleDTO;
+import com.devsuperior.dscatalog.dto.UserInsertDTO;
+import com.devsuperior.dscatalog.entities.Role;
+import com.devsuperior.dscatalog.repositories.RoleRepository;
+import com.devsuperior.dscatalog.repositories.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Importa usuarios de um arquivo NDJSON lido como stream, no mesmo esquema da
+ * importacao de produtos: validacao por linha e blocos gravados cada um na sua
+ * transacao. Os hashes das senhas sao gerados no PasswordHashingPool; enquanto
+ * um bloco e gravado o pool ja trabalha nas senhas do proximo.
+ */
+@Service
+public class UserImportService {
+
+	private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+	static final int CHUNK_SIZE = 500;
+
+	private final UserService userService;
+	private final UserRepository userRepository;
+	private final RoleRepository roleRepository;
+	private final PasswordHashingPool passwordHashingPool;
+	private final Validator validator;
+	private final ObjectMapper objectMapper;
+
+	public UserImportService(UserService userService,
+			UserRepository userRepository,
+			RoleRepository roleRepository,
+			PasswordHashingPool passwordHashingPool,
+			Validator validator,
+			ObjectMapper objectMapper) {
+		this.userService = userService;
+		this.userRepository = userRepository;
+		this.roleRepository = roleRepository;
+		this.passwordHashingPool = passwordHashingPool;
+		this.validator = validator;
+		this.objectMapper = objectMapper;
+	}
+
+	public ImportReportDTO importUsers(InputStream in) throws IOException {
+		Set<Long> roleIds = roleRepository.findAll().stream()
+				.map(Role::getId)
+				.collect(Collectors.toSet());
+		// Emails ja vistos no arquivo, para rejeitar a segunda ocorrencia
+		Set<String> emails = new HashSet<>();
+
+		ImportReportDTO report = new ImportReportDTO();
+		List<ParsedRow> chunk = new ArrayList<>(CHUNK_SIZE);
+		Chunk hashing = null;
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		long row = 0;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.isBlank()) {
+				continue;
+			}
+			row++;
+			ParsedRow parsed = parse(row, line);
+			if (parsed.errors.isEmpty()) {
+				parsed.errors.addAll(validate(parsed.user, roleIds, emails));
+			}
+			if (!parsed.errors.isEmpty()) {
+				report.addRejected(row, parsed.errors);
+				continue;
+			}
+			chunk.add(parsed);
+			if (chunk.size() == CHUNK_SIZE) {
+				Chunk next = submit(chunk);
+				commit(hashing, report);
+				hashing = next;
+				chunk = new ArrayList<>(CHUNK_SIZE);
+			}
+		}
+		commit(hashing, report);
+		commit(submit(chunk), report);
+		log.info("User import finished on {} hashing threads: {} accepted, {} rejected",
+				passwordHashingPool.getThreads(), report.getAccepted(), report.getRejected());
+		return report;
+	}
+
+	private ParsedRow parse(long row, String line) {
+		try {
+			UserInsertDTO dto = objectMapper.readValue(line, UserInsertDTO.class);
+			// A linha "null" e JSON valido, mas nao e um usuario
+			if (dto == null) {
+				return new ParsedRow(row, null, new ArrayList<>(List.of("expected a JSON object")));
+			}
+			dto.setId(null);
+			return new ParsedRow(row, dto, new ArrayList<>());
+		}
+		catch (JsonProcessingException e) {
+			return new ParsedRow(row, null, new ArrayList<>(List.of("invalid JSON: " + e.getOriginalMessage())));
+		}
+	}
+
+	private List<String> validate(UserInsertDTO dto, Set<Long> roleIds, Set<String> emails) {
+		List<String> errors = new ArrayList<>();
+		for (ConstraintViolation<UserInsertDTO> violation : validator.validate(dto)) {
+			errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+		}
+		if (dto.getEmail() == null || dto.getEmail().isBlank()) {
+			errors.add("email: must not be blank");
+		}
+		else if (!emails.add(dto.getEmail())) {
+			errors.add("email: duplicated in file");
+		}
+		if (dto.getPassword() == null || dto.getPassword().isEmpty()) {
+			errors.add("password: must not be blank");
+		}
+		for (RoleDTO role : dto.getRoles()) {
+			if (!roleIds.contains(role.getId())) {
+				errors.add("roles: role " + role.getId() + " not found");
+			}
+		}
+		return errors;
+	}
+
+	// Bloqueia aqui quando o pool esta cheio, o que segura a leitura do arquivo
+	private Chunk submit(List<ParsedRow> rows) {
+		List<CompletableFuture<String>> hashes = new ArrayList<>(rows.size());
+		for (ParsedRow row : rows) {
+			hashes.add(passwordHashingPool.encode(row.user.getPassword()));
+			row.user.setPassword(null);
+		}
+		return new Chunk(rows, hashes);
+	}
+
+	// Se o bloco falhar no banco, regrava linha a linha para isolar as culpadas
+	private void commit(Chunk chunk, ImportReportDTO report) {
+		if (chunk == null || chunk.rows.isEmpty()) {
+			return;
+		}
+		Set<String> existing = new HashSet<>(userRepository.findExistingEmails(
+				chunk.rows.stream().map(row -> row.user.getEmail()).collect(Collectors.toList())));
+
+		List<ParsedRow> rows = new ArrayList<>(chunk.rows.size());
+		List<String> hashes = new ArrayList<>(chunk.rows.size());
+		for (int i = 0; i < chunk.rows.size(); i++) {
+			ParsedRow row = chunk.rows.get(i);
+			if (existing.contains(row.user.getEmail())) {
+				report.addRejected(row.row, List.of("email: already registered"));
+				continue;
+			}
+			try {
+				hashes.add(chunk.hashes.get(i).join());
+				rows.add(row);
+			}
+			catch (CompletionException e) {
+				report.addRejected(row.row, List.of("password: " + e.getCause().getMessage()));
+			}
+		}
+		if (rows.isEmpty()) {
+			return;
+		}
+
+		List<UserInsertDTO> users = rows.stream().map(row -> row.user).collect(Collectors.toList());
+		try {
+			userService.insertBatch(users, hashes);
+			report.addAccepted(users.size());
+		}
+		catch (RuntimeException e) {
+			log.warn("User import chunk of {} rows failed, retrying row by row: {}", users.size(), e.getMessage());
+			for (int i = 0; i < users.size(); i++) {
+				try {
+					userService.insertBatch(List.of(users.get(i)), List.of(hashes.get(i)));
+					report.addAccepted(1);
+				}
+				catch (RuntimeException rowException) {
+					report.addRejected(rows.get(i).row, List.of(String.valueOf(rowException.getMessage())));
+				}
+			}
+		}
+	}
+
+	private static class ParsedRow {
+		private final long row;
+		private final UserInsertDTO user;
+		private final List<String> errors;
+
+		ParsedRow(long row, UserInsertDTO user, List<String> errors) {
+			this.row = row;
+			this.user = user;
+			this.errors = errors;
+		}
+	}
+
+	// Bloco ja submetido ao pool; os hashes ficam na mesma ordem das linhas
+	private static class Chunk {
+		private final List<ParsedRow> rows;
+		private final List<CompletableFuture<String>> hashes;
+
+		Chunk(List<ParsedRow> rows, List<CompletableFuture<String>> hashes) {
+			this.rows = rows;
+			this.hashes = hashes;
+		}
+	}
+
+}
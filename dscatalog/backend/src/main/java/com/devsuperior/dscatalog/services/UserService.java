@@ -1,17 +1,29 @@
 package com.devsuperior.dscatalog.services;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityNotFoundException;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
 import com.devsuperior.dscatalog.dto.RoleDTO;
 import com.devsuperior.dscatalog.dto.UserDTO;
 import com.devsuperior.dscatalog.dto.UserInsertDTO;
@@ -23,29 +35,57 @@ import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
 
 @Service
-public class UserService {
+public class UserService implements UserDetailsService {
 
 	private final BCryptPasswordEncoder passwordEncoder;
 	private final UserRepository userRepository;
 	private final RoleRepository roleRepository;
+	private final UserDetailsCache userDetailsCache;
+	private final ApplicationEventPublisher eventPublisher;
 
 	public UserService(UserRepository userRepository, 
 			RoleRepository roleRepository, 
-			BCryptPasswordEncoder passwordEncoder) {
+			BCryptPasswordEncoder passwordEncoder,
+			UserDetailsCache userDetailsCache,
+			ApplicationEventPublisher eventPublisher) {
 		this.userRepository = userRepository;
 		this.roleRepository = roleRepository;
 		this.passwordEncoder = passwordEncoder;
+		this.userDetailsCache = userDetailsCache;
+		this.eventPublisher = eventPublisher;
 	}
 
+	// Sem transacao propria: um acerto no cache nao precisa de conexao
+	@Override
+	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+		return userDetailsCache.get(username, this::loadByEmail);
+	}
+
+	// Duas consultas por pagina (mais o COUNT), qualquer que seja o tamanho da pagina
 	@Transactional(readOnly = true)
 	public Page<UserDTO> findAllPaged(Pageable pageable) {
-		Page<User> list = userRepository.findAll(pageable);
-		return list.map(UserDTO::new);
+		Page<Long> ids = userRepository.findIds(pageable);
+		List<UserDTO> content = findWithRoles(ids.getContent());
+		return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+	}
+
+	@Transactional(readOnly = true)
+	public CursorPageDTO<UserDTO> findAllByCursor(String after, int size) {
+		Pageable limit = KeysetCursor.limit(size);
+		List<Long> ids;
+		if (after == null || after.isBlank()) {
+			ids = userRepository.findIdsOrderByEmail(limit);
+		}
+		else {
+			KeysetCursor cursor = KeysetCursor.decode(after);
+			ids = userRepository.findIdsOrderByEmailAfter(cursor.getKey(), cursor.getId(), limit);
+		}
+		return KeysetCursor.page(findWithRoles(ids), size, UserDTO::getEmail, UserDTO::getId);
 	}
 
 	@Transactional(readOnly = true)
 	public UserDTO findById(Long id) {
-		Optional<User> obj = userRepository.findById(id);
+		Optional<User> obj = userRepository.findWithRolesById(id);
 		User entity = obj.orElseThrow(() -> new ResourceNotFoundException(String.format("id %d not found", id)));
 		return new UserDTO(entity);
 	}
@@ -59,12 +99,27 @@ public class UserService {
 		return new UserDTO(entity);
 	}
 
+	// Recebe as senhas ja com hash; com id por sequence os INSERTs vao em lote
+	@Transactional
+	public List<Long> insertBatch(List<UserInsertDTO> dtos, List<String> passwordHashes) {
+		List<Long> ids = new ArrayList<>(dtos.size());
+		for (int i = 0; i < dtos.size(); i++) {
+			User entity = new User();
+			copyDtoToEntity(dtos.get(i), entity);
+			entity.setPassword(passwordHashes.get(i));
+			entity = userRepository.save(entity);
+			ids.add(entity.getId());
+		}
+		return ids;
+	}
+
 	@Transactional
 	public UserDTO update(Long id, UserDTO dto) {
 		try {
 			User entity = userRepository.getOne(id);
 			copyDtoToEntity(dto, entity);
 			entity = userRepository.save(entity);
+			eventPublisher.publishEvent(new UserChangedEvent(id));
 			return new UserDTO(entity);
 		} catch (EntityNotFoundException e) {
 			throw new ResourceNotFoundException(String.format("id %d not found!", id));
@@ -74,6 +129,7 @@ public class UserService {
 	public void delete(Long id) {
 		try {
 			userRepository.deleteById(id);
+			eventPublisher.publishEvent(new UserChangedEvent(id));
 		} catch (EmptyResultDataAccessException e) {
 			throw new ResourceNotFoundException(String.format("id %d not found!", id));
 		} catch (DataIntegrityViolationException e) {
@@ -82,6 +138,25 @@ public class UserService {
 
 	}
 
+	// Mantem a ordem dos ids, que e a ordem da pagina
+	private List<UserDTO> findWithRoles(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, User> users = userRepository.findUsersWithRoles(ids).stream()
+				.collect(Collectors.toMap(User::getId, Function.identity()));
+		return ids.stream()
+				.map(users::get)
+				.filter(Objects::nonNull)
+				.map(UserDTO::new)
+				.collect(Collectors.toList());
+	}
+
+	private User loadByEmail(String email) {
+		Optional<User> obj = userRepository.findByEmail(email);
+		return obj.orElseThrow(() -> new UsernameNotFoundException(String.format("email %s not found", email)));
+	}
+
 	private void copyDtoToEntity(UserDTO dto, User entity) {
 
 		entity.setFirstName(dto.getFirstName());
@@ -1,13 +1,34 @@
 package com.devsuperior.dscatalog;
 
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.spi.ConnectionFactory;
 
 @SpringBootTest
 class DscatalogApplicationTests {
 
+	@Autowired
+	private ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 	}
 
+	// JDBC/JPA e R2DBC juntos: um bean ConnectionFactory faria o Spring Boot desligar o DataSource
+	@Test
+	void contextShouldHaveJdbcAndReactiveDatabaseAccess() {
+		Assertions.assertNotNull(context.getBean(DataSource.class));
+		Assertions.assertNotNull(context.getBean(EntityManagerFactory.class));
+		Assertions.assertNotNull(context.getBean(DatabaseClient.class));
+		Assertions.assertEquals(0, context.getBeanNamesForType(ConnectionFactory.class).length);
+	}
+
 }
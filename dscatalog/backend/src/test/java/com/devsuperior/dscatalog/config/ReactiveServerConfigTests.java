@@ -0,0 +1,21 @@
+package com.devsuperior.dscatalog.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.source.InvalidConfigurationPropertyValueException;
+
+public class ReactiveServerConfigTests {
+
+	@Test
+	public void reactiveDatabaseClientShouldFailWhenUrlIsMissing() {
+		
+		ReactiveServerConfig config = new ReactiveServerConfig();
+		
+		InvalidConfigurationPropertyValueException e = Assertions.assertThrows(InvalidConfigurationPropertyValueException.class, () -> {
+			config.reactiveDatabaseClient(new R2dbcProperties());
+		});
+		Assertions.assertEquals("spring.r2dbc.url", e.getName());
+	}
+	
+}
@@ -1,5 +1,6 @@
 package com.devsuperior.dscatalog.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Assertions;
@@ -11,6 +12,7 @@ import org.springframework.dao.EmptyResultDataAccessException;
 
 import com.devsuperior.dscatalog.entities.Product;
 import com.devsuperior.dscatalog.tests.Factory;
+import com.devsuperior.dscatalog.tests.QueryCount;
 
 @DataJpaTest
 public class ProductRepositoryTests {
@@ -77,5 +79,14 @@ public class ProductRepositoryTests {
 		});
 	}
 	
+	@Test
+	public void findProductsWithCategoriesShouldFetchCategoriesInTheSameSelect() {
+		
+		QueryCount.of(() -> {
+			List<Product> result = repository.findProductsWithCategories(List.of(1L, 2L, 3L));
+			result.forEach(product -> product.getCategories().size());
+			return result;
+		}).assertSelects(1).assertNoCollectionFetches();
+	}
 
 }
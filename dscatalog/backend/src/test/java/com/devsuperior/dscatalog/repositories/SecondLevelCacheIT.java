@@ -0,0 +1,73 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Role;
+
+@SpringBootTest
+public class SecondLevelCacheIT {
+	
+	@Autowired
+	private CategoryRepository categoryRepository;
+	
+	@Autowired
+	private RoleRepository roleRepository;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	private Statistics statistics;
+	private TransactionTemplate transaction;
+	
+	@BeforeEach
+	void setup() throws Exception {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		transaction = new TransactionTemplate(transactionManager);
+	}
+	
+	@Test
+	public void findByIdShouldNotQueryDatabaseWhenCategoryIsCached() {
+		
+		transaction.execute(status -> categoryRepository.findById(1L).get().getName());
+		statistics.clear();
+		
+		String name = transaction.execute(status -> categoryRepository.findById(1L).get().getName());
+		
+		Assertions.assertEquals("Livros", name);
+		Assertions.assertEquals(0L, statistics.getPrepareStatementCount());
+		Assertions.assertEquals(1L, statistics.getSecondLevelCacheHitCount());
+	}
+	
+	@Test
+	public void findAllShouldUseQueryCache() {
+		
+		transaction.execute(status -> categoryRepository.findAll());
+		transaction.execute(status -> roleRepository.findAll());
+		statistics.clear();
+		
+		List<Category> categories = transaction.execute(status -> categoryRepository.findAll());
+		List<Role> roles = transaction.execute(status -> roleRepository.findAll());
+		
+		Assertions.assertEquals(3, categories.size());
+		Assertions.assertEquals(2, roles.size());
+		Assertions.assertEquals(0L, statistics.getPrepareStatementCount());
+		Assertions.assertEquals(2L, statistics.getQueryCacheHitCount());
+	}
+	
+}
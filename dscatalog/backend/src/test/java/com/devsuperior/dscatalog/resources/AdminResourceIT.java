@@ -0,0 +1,58 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+// maria@gmail.com tem ROLE_ADMIN no data.sql; alex@gmail.com so ROLE_OPERATOR
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AdminResourceIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Test
+	public void rebuildCategoryStatsShouldReturnUnauthorizedWithoutCredentials() throws Exception {
+		
+		mockMvc.perform(MockMvcRequestBuilders.post("/admin/category-stats/rebuild"))
+			.andExpect(MockMvcResultMatchers.status().isUnauthorized());
+	}
+	
+	@Test
+	public void rebuildCategoryStatsShouldReturnNoContentForAdmin() throws Exception {
+		
+		mockMvc.perform(MockMvcRequestBuilders.post("/admin/category-stats/rebuild")
+				.header(HttpHeaders.AUTHORIZATION, basic("maria@gmail.com", "123456")))
+			.andExpect(MockMvcResultMatchers.status().isNoContent());
+	}
+	
+	@Test
+	public void rebuildCategoryStatsShouldReturnForbiddenForOperator() throws Exception {
+		
+		mockMvc.perform(MockMvcRequestBuilders.post("/admin/category-stats/rebuild")
+				.header(HttpHeaders.AUTHORIZATION, basic("alex@gmail.com", "123456")))
+			.andExpect(MockMvcResultMatchers.status().isForbidden());
+	}
+	
+	@Test
+	public void publicRoutesShouldStillWorkWithoutCredentials() throws Exception {
+		
+		mockMvc.perform(MockMvcRequestBuilders.get("/categories"))
+			.andExpect(MockMvcResultMatchers.status().isOk());
+	}
+	
+	private static String basic(String username, String password) {
+		String token = username + ":" + password;
+		return "Basic " + Base64.getEncoder().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+	}
+	
+}
@@ -0,0 +1,97 @@
+package com.devsuperior.dscatalog.resources;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CategoryResourceIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	private Long existingId;
+
+	@BeforeEach
+	void setup() throws Exception {
+		existingId = 1L;
+	}
+	
+	@Test
+	public void findAllShouldReturnOkWhenCategoryChangedAfterETagWasIssued() throws Exception {
+		
+		String etag = findAllETag("/categories?page=0&size=10");
+		
+		// Sem transacao no teste: o snapshot de categorias so e recarregado depois do commit
+		update(existingId, "Livros e Revistas");
+		try {
+			ResultActions result = 
+					mockMvc.perform(MockMvcRequestBuilders.get("/categories?page=0&size=10")
+						.header("If-None-Match", etag)
+						.accept(MediaType.APPLICATION_JSON));
+			
+			result.andExpect(MockMvcResultMatchers.status().isOk());
+			Assertions.assertNotEquals(etag, result.andReturn().getResponse().getHeader("ETag"));
+		}
+		finally {
+			update(existingId, "Livros");
+		}
+	}
+	
+	@Test
+	public void findAllShouldReturnNotModifiedWhenNothingChanged() throws Exception {
+		
+		String etag = findAllETag("/categories?page=0&size=10&sort=name,desc");
+		
+		ResultActions result = 
+				mockMvc.perform(MockMvcRequestBuilders.get("/categories?page=0&size=10&sort=name,desc")
+					.header("If-None-Match", etag)
+					.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(MockMvcResultMatchers.status().isNotModified());
+	}
+	
+	@Test
+	public void findAllShouldUseDifferentETagsForDifferentPageRequests() throws Exception {
+		
+		String byNameAsc = findAllETag("/categories?page=0&size=10&sort=name,asc");
+		String byNameDesc = findAllETag("/categories?page=0&size=10&sort=name,desc");
+		String secondPage = findAllETag("/categories?page=1&size=10&sort=name,asc");
+		
+		Assertions.assertNotEquals(byNameAsc, byNameDesc);
+		Assertions.assertNotEquals(byNameAsc, secondPage);
+	}
+	
+	private String findAllETag(String uri) throws Exception {
+		return mockMvc.perform(MockMvcRequestBuilders.get(uri)
+					.accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().exists("ETag"))
+				.andReturn().getResponse().getHeader("ETag");
+	}
+	
+	private void update(Long id, String name) throws Exception {
+		String jsonBody = objectMapper.writeValueAsString(new CategoryDTO(id, name));
+		mockMvc.perform(MockMvcRequestBuilders.put("/categories/{id}", id)
+					.content(jsonBody)
+					.contentType(MediaType.APPLICATION_JSON)
+					.accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+	}
+	
+}
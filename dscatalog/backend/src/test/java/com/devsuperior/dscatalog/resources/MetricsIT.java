@@ -0,0 +1,44 @@
+package com.devsuperior.dscatalog.resources;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+// @AutoConfigureMetrics cria outro contexto; um banco proprio evita recriar o dos demais testes
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:metricsdb",
+		"spring.r2dbc.url=r2dbc:h2:mem:///metricsdb"
+})
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class MetricsIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	public void prometheusShouldExposeEndpointServiceAndHibernateMetrics() throws Exception {
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/products?page=0&size=12")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+
+		String body = mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		Assertions.assertTrue(body.contains("http_server_requests_seconds_bucket{"));
+		Assertions.assertTrue(body.contains("service_method_seconds_count{application=\"dscatalog\",class=\"ProductService\",exception=\"none\",method=\"findAllPaged\""));
+		Assertions.assertTrue(body.contains("http_server_response_size_bytes_count{application=\"dscatalog\",method=\"GET\",status=\"200\",uri=\"/products\""));
+		Assertions.assertTrue(body.contains("hibernate_request_statements_count{application=\"dscatalog\",method=\"GET\",status=\"200\",uri=\"/products\""));
+		Assertions.assertTrue(body.contains("hikaricp_connections_acquire_seconds"));
+	}
+
+}
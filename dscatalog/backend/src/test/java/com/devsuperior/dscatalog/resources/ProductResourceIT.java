@@ -1,7 +1,9 @@
 package com.devsuperior.dscatalog.resources;
 
+import javax.persistence.EntityManagerFactory;
 import javax.transaction.Transactional;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,12 +11,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.devsuperior.dscatalog.dto.ProductDTO;
 import com.devsuperior.dscatalog.tests.Factory;
+import com.devsuperior.dscatalog.tests.QueryCount;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @SpringBootTest
@@ -28,6 +32,9 @@ public class ProductResourceIT {
 	@Autowired
 	private ObjectMapper objectMapper;
 	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
 	private Long existingId;
 	private Long nonExistingId;
 	private Long countTotalProducts;
@@ -91,4 +98,92 @@ public class ProductResourceIT {
 		result.andExpect(MockMvcResultMatchers.status().isNotFound());
 	}
 	
+	@Test
+	public void findByIdShouldReturnNotModifiedWhenETagMatches() throws Exception {
+		
+		String etag = 
+				mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", existingId)
+					.accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().exists("ETag"))
+				.andReturn().getResponse().getHeader("ETag");
+		
+		ResultActions result = 
+				mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", existingId)
+					.header("If-None-Match", etag)
+					.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(MockMvcResultMatchers.status().isNotModified());
+		result.andExpect(MockMvcResultMatchers.content().string(""));
+	}
+	
+	@Test
+	public void exportShouldStreamOneCsvLinePerProduct() throws Exception {
+		
+		MvcResult asyncResult = 
+				mockMvc.perform(MockMvcRequestBuilders.get("/products/export?format=csv"))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		
+		String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith("text/csv"))
+				.andReturn().getResponse().getContentAsString();
+		
+		Assertions.assertTrue(body.endsWith("\r\n"));
+		Assertions.assertFalse(body.replace("\r\n", "").contains("\n"));
+		String[] lines = body.split("\r\n");
+		Assertions.assertEquals("id,name,description,price,imgUrl,date,categoryIds", lines[0]);
+		Assertions.assertEquals(countTotalProducts + 1, lines.length);
+		Assertions.assertTrue(lines[2].startsWith("2,Smart TV,"));
+		Assertions.assertTrue(lines[2].endsWith(",1|3"));
+	}
+	
+	@Test
+	public void exportShouldStreamOneJsonObjectPerLineWithItsOwnTimeout() throws Exception {
+		
+		MvcResult asyncResult = 
+				mockMvc.perform(MockMvcRequestBuilders.get("/products/export"))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		
+		Assertions.assertEquals(3_600_000L, asyncResult.getRequest().getAsyncContext().getTimeout());
+		
+		String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith("application/x-ndjson"))
+				.andReturn().getResponse().getContentAsString();
+		
+		String[] lines = body.split("\n");
+		Assertions.assertEquals(countTotalProducts, lines.length);
+		ProductDTO second = objectMapper.readValue(lines[1], ProductDTO.class);
+		Assertions.assertEquals(2L, second.getId());
+		Assertions.assertEquals("Smart TV", second.getName());
+		Assertions.assertEquals(2, second.getCategories().size());
+	}
+	
+	@Test
+	public void findAllShouldRunSameNumberOfSelectsForAnyPageSize() throws Exception {
+		
+		entityManagerFactory.getCache().evictAll();
+		
+		QueryCount small = QueryCount.of(() -> mockMvc.perform(MockMvcRequestBuilders.get("/products?page=0&size=5"))
+				.andExpect(MockMvcResultMatchers.status().isOk()));
+		QueryCount large = QueryCount.of(() -> mockMvc.perform(MockMvcRequestBuilders.get("/products?page=0&size=20"))
+				.andExpect(MockMvcResultMatchers.status().isOk()));
+		
+		// ids da pagina, COUNT e produtos com categorias
+		large.assertSelects(3).assertNoCollectionFetches();
+		Assertions.assertEquals(small.getSelects(), large.getSelects());
+	}
+	
+	@Test
+	public void findSummaryShouldRunOnlyPageAndCountSelects() throws Exception {
+		
+		QueryCount.of(() -> mockMvc.perform(MockMvcRequestBuilders.get("/products/summary?page=0&size=20"))
+				.andExpect(MockMvcResultMatchers.status().isOk()))
+				.assertSelects(2)
+				.assertNoCollectionFetches();
+	}
+	
 }
@@ -0,0 +1,132 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+
+import com.devsuperior.dscatalog.config.ReactiveServer;
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+
+@SpringBootTest
+public class ReactiveCatalogRoutesIT {
+	
+	@Autowired
+	private ReactiveCatalogRoutes routes;
+	
+	@Autowired
+	private HandlerStrategies reactiveHandlerStrategies;
+	
+	@Autowired
+	private ReactiveServer reactiveServer;
+	
+	private WebTestClient client;
+	
+	@BeforeEach
+	void setup() throws Exception {
+		client = WebTestClient.bindToRouterFunction(routes.routes())
+				.handlerStrategies(reactiveHandlerStrategies)
+				.build();
+	}
+	
+	@Test
+	public void findAllProductsShouldReturnFilteredPageWithCategories() {
+		
+		List<ProductDTO> result = client.get().uri("/products?categoryId=2&sort=name&size=10")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBodyList(ProductDTO.class)
+				.returnResult().getResponseBody();
+		
+		Assertions.assertEquals(2, result.size());
+		Assertions.assertEquals("Rails for Dummies", result.get(0).getName());
+		Assertions.assertEquals("The Lord of the Rings", result.get(1).getName());
+		Assertions.assertEquals(2L, result.get(0).getCategories().get(0).getId());
+	}
+	
+	@Test
+	public void findAllProductsShouldStreamNdjsonPage() {
+		
+		List<ProductDTO> result = client.get().uri("/products?page=1&size=10")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(ProductDTO.class)
+				.getResponseBody().collectList().block();
+		
+		Assertions.assertEquals(10, result.size());
+		Assertions.assertEquals(11L, result.get(0).getId());
+	}
+	
+	@Test
+	public void findAllProductsShouldReturnBadRequestWhenSortIsNotSupported() {
+		
+		client.get().uri("/products?sort=description")
+				.exchange()
+				.expectStatus().isBadRequest()
+				.expectBody().jsonPath("$.status").isEqualTo(400);
+	}
+	
+	@Test
+	public void findProductByIdShouldReturnProductWithAllCategories() {
+		
+		client.get().uri("/products/2")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.name").isEqualTo("Smart TV")
+				.jsonPath("$.description").exists()
+				.jsonPath("$.categories.length()").isEqualTo(2);
+	}
+	
+	@Test
+	public void findProductByIdShouldReturnNotFoundWhenIdDoesNotExist() {
+		
+		client.get().uri("/products/1000")
+				.exchange()
+				.expectStatus().isNotFound()
+				.expectBody().jsonPath("$.path").isEqualTo("/products/1000");
+	}
+	
+	@Test
+	public void findAllCategoriesShouldReturnSortedCategories() {
+		
+		List<CategoryDTO> result = client.get().uri("/categories?sort=name")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBodyList(CategoryDTO.class)
+				.returnResult().getResponseBody();
+		
+		Assertions.assertEquals(3, result.size());
+		Assertions.assertEquals("Computadores", result.get(0).getName());
+	}
+	
+	@Test
+	public void reactiveServerShouldServeRoutesOverHttpOnItsOwnPort() {
+		
+		WebTestClient http = WebTestClient.bindToServer()
+				.baseUrl("http://localhost:" + reactiveServer.getPort())
+				.build();
+		
+		List<ProductDTO> result = http.get().uri("/products?categoryId=2&sort=name&size=10")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBodyList(ProductDTO.class)
+				.returnResult().getResponseBody();
+		
+		Assertions.assertTrue(reactiveServer.getPort() > 0);
+		Assertions.assertEquals(2, result.size());
+		Assertions.assertEquals("Rails for Dummies", result.get(0).getName());
+	}
+	
+}
@@ -0,0 +1,181 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscatalog.config.ReadYourWritesFilter;
+import com.devsuperior.dscatalog.services.ProductCache;
+import com.devsuperior.dscatalog.services.ProductService;
+import com.devsuperior.dscatalog.services.UserDetailsCache;
+import com.devsuperior.dscatalog.services.UserService;
+
+// Duas bases H2: routingdb e o primario, replica0 recebe uma copia dele e depois diverge de proposito
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:routingdb",
+		"spring.r2dbc.url=r2dbc:h2:mem:///routingdb",
+		"app.datasource.routing.enabled=true",
+		"app.datasource.replicas[0].url=jdbc:h2:mem:replica0;DB_CLOSE_DELAY=-1",
+		"app.datasource.replicas[0].username=sa",
+		"app.datasource.replicas[0].password="
+})
+@AutoConfigureMockMvc
+public class ReadReplicaRoutingIT {
+
+	private static final String REPLICA_URL = "jdbc:h2:mem:replica0;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductCache productCache;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserDetailsCache userDetailsCache;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setup() throws Exception {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		copyPrimaryToReplica(dataSource);
+	}
+
+	@Test
+	public void readOnlyTransactionShouldReadFromReplica() {
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+
+		String fromReplica = readOnly.execute(status -> firstNameOfUser1());
+		String fromPrimary = new TransactionTemplate(transactionManager).execute(status -> firstNameOfUser1());
+
+		Assertions.assertEquals("Replica", fromReplica);
+		Assertions.assertEquals("Alex", fromPrimary);
+	}
+
+	@Test
+	public void findByIdShouldReadFromReplicaWhenSessionHasNotWritten() throws Exception {
+		mockMvc.perform(MockMvcRequestBuilders.get("/users/1")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.firstName").value("Replica"))
+				.andExpect(MockMvcResultMatchers.cookie().doesNotExist(ReadYourWritesFilter.COOKIE));
+	}
+
+	@Test
+	public void findByIdShouldReadFromPrimaryRightAfterSessionWrites() throws Exception {
+		MvcResult write = updateCategoryName("Livros (replica)");
+		Cookie sticky = write.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+		try {
+			Assertions.assertNotNull(sticky);
+
+			mockMvc.perform(MockMvcRequestBuilders.get("/users/1")
+					.cookie(sticky)
+					.accept(MediaType.APPLICATION_JSON))
+					.andExpect(MockMvcResultMatchers.status().isOk())
+					.andExpect(MockMvcResultMatchers.jsonPath("$.firstName").value("Alex"));
+		}
+		finally {
+			updateCategoryName("Livros");
+		}
+	}
+
+	// Dentro de uma transacao readOnly a carga iria para a replica, se nao fosse o PrimaryReads
+	@Test
+	public void productCacheShouldLoadFromPrimaryInsideReadOnlyTransaction() {
+		productCache.invalidate(1L);
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+
+		String name = readOnly.execute(status -> productService.findById(1L).getName());
+
+		Assertions.assertEquals("The Lord of the Rings", name);
+	}
+
+	@Test
+	public void userDetailsCacheShouldLoadFromPrimaryInsideReadOnlyTransaction() {
+		userDetailsCache.invalidateAll();
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+
+		String password = readOnly.execute(status -> userService.loadUserByUsername("maria@gmail.com").getPassword());
+
+		Assertions.assertNotEquals("replica", password);
+	}
+
+	private MvcResult updateCategoryName(String name) throws Exception {
+		return mockMvc.perform(MockMvcRequestBuilders.put("/categories/1")
+				.content(String.format("{\"name\": \"%s\"}", name))
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andReturn();
+	}
+
+	private String firstNameOfUser1() {
+		return jdbcTemplate.queryForObject("SELECT first_name FROM tb_user WHERE id = 1", String.class);
+	}
+
+	// Copia o primario (fora de transacao o roteador usa ele) e faz a replica divergir. Produto e
+	// senha divergentes so aparecem se uma carga de cache ler da replica
+	private static void copyPrimaryToReplica(DataSource dataSource) throws Exception {
+		File script = File.createTempFile("replica", ".sql");
+		script.deleteOnExit();
+		new JdbcTemplate(dataSource).execute(String.format("SCRIPT TO '%s'", script.getAbsolutePath()));
+
+		try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+				Statement statement = connection.createStatement()) {
+			statement.execute("DROP ALL OBJECTS");
+			statement.execute(String.format("RUNSCRIPT FROM '%s'", script.getAbsolutePath()));
+			statement.execute("UPDATE tb_user SET first_name = 'Replica' WHERE id = 1");
+			statement.execute("UPDATE tb_user SET password = 'replica' WHERE email = 'maria@gmail.com'");
+			statement.execute("UPDATE tb_product SET name = 'Replica' WHERE id = 1");
+		}
+	}
+
+	@TestConfiguration
+	static class ReplicaSetup {
+
+		// Depois do schema e do data.sql no primario e antes do ApplicationReadyEvent, que ja monta as copias em memoria
+		@Bean
+		public InitializingBean replicaCopy(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+			return () -> copyPrimaryToReplica(dataSource);
+		}
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.devsuperior.dscatalog.services.SlowQueryLog;
+
+// Limite zero: todo comando conta como lento. O proxy JDBC pede outro contexto, entao o banco tambem e outro
+@SpringBootTest(properties = {
+		"app.slow-query.enabled=true",
+		"app.slow-query.threshold=0ms",
+		"spring.datasource.url=jdbc:h2:mem:slowquerydb",
+		"spring.r2dbc.url=r2dbc:h2:mem:///slowquerydb"
+})
+@AutoConfigureMockMvc
+public class SlowQueryLogIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private SlowQueryLog slowQueryLog;
+
+	@BeforeEach
+	void setup() throws Exception {
+		slowQueryLog.clear();
+	}
+
+	@Test
+	public void slowQueriesShouldReturnStatementsWithRequestServiceParametersAndPlan() throws Exception {
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/products?page=0&size=5&name=gamer")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/admin/slow-queries")
+				.header(HttpHeaders.AUTHORIZATION, basic("maria@gmail.com", "123456"))
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].sql").exists())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[?(@.request == 'GET /products?page=0&size=5&name=gamer')]").exists())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[?(@.serviceMethod == 'ProductService.findAllPaged')]").exists())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].parameters").isArray())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[?(@.plan != null)]").exists());
+	}
+
+	@Test
+	public void slowQueriesShouldMaskParameterValues() throws Exception {
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/products?page=0&size=5&name=gamer")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/admin/slow-queries")
+				.header(HttpHeaders.AUTHORIZATION, basic("maria@gmail.com", "123456"))
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[*].parameters[*]", Matchers.hasItem("<5 chars>")))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[*].parameters[*]", Matchers.not(Matchers.hasItem("'gamer'"))));
+	}
+
+	@Test
+	public void slowQueriesShouldReturnUnauthorizedWithoutCredentials() throws Exception {
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/admin/slow-queries"))
+				.andExpect(MockMvcResultMatchers.status().isUnauthorized());
+	}
+
+	private static String basic(String username, String password) {
+		String token = username + ":" + password;
+		return "Basic " + Base64.getEncoder().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+
+public class CategorySnapshotTests {
+	
+	private CategoryRepository repository;
+	private CategorySnapshot snapshot;
+	private List<Category> categories;
+	
+	@BeforeEach
+	void setup() throws Exception {
+		categories = new ArrayList<>(List.of(new Category(1L, "Livros"), new Category(2L, "Eletronicos"), new Category(3L, "Computadores")));
+		repository = Mockito.mock(CategoryRepository.class);
+		Mockito.when(repository.findAll()).thenAnswer(invocation -> new ArrayList<>(categories));
+		snapshot = new CategorySnapshot(repository);
+	}
+	
+	@Test
+	public void findAllPagedShouldReturnSortedPageWithoutNewQueries() {
+		
+		Page<CategoryDTO> first = snapshot.findAllPaged(PageRequest.of(0, 2, Sort.by("name")));
+		Page<CategoryDTO> second = snapshot.findAllPaged(PageRequest.of(1, 2, Sort.by("name")));
+		
+		Assertions.assertEquals(3, first.getTotalElements());
+		Assertions.assertEquals("Computadores", first.getContent().get(0).getName());
+		Assertions.assertEquals("Eletronicos", first.getContent().get(1).getName());
+		Assertions.assertEquals("Livros", second.getContent().get(0).getName());
+		Mockito.verify(repository, Mockito.times(1)).findAll();
+	}
+	
+	@Test
+	public void findAllPagedShouldSortByIdDescending() {
+		
+		Page<CategoryDTO> result = snapshot.findAllPaged(PageRequest.of(0, 10, Sort.by("id").descending()));
+		
+		Assertions.assertEquals(3L, result.getContent().get(0).getId());
+		Assertions.assertEquals(1L, result.getContent().get(2).getId());
+	}
+	
+	@Test
+	public void findAllPagedShouldReturnEmptyPageWhenPageDoesNotExist() {
+		
+		Page<CategoryDTO> result = snapshot.findAllPaged(PageRequest.of(5, 10));
+		
+		Assertions.assertTrue(result.isEmpty());
+		Assertions.assertEquals(3, result.getTotalElements());
+	}
+	
+	@Test
+	public void findAllPagedShouldThrowBadRequestWhenSortPropertyIsUnknown() {
+		
+		Assertions.assertThrows(BadRequestException.class, () -> {
+			snapshot.findAllPaged(PageRequest.of(0, 10, Sort.by("createdAt")));
+		});
+	}
+	
+	@Test
+	public void onCategoryChangedShouldSwapSnapshot() {
+		
+		String version = snapshot.findCollectionVersion();
+		categories.add(new Category(4L, "Games"));
+		
+		snapshot.onCategoryChanged(CategoryChangedEvent.saved(new CategoryDTO(4L, "Games")));
+		
+		Assertions.assertEquals(4, snapshot.size());
+		Assertions.assertEquals("Games", snapshot.findById(4L).getName());
+		Assertions.assertNotEquals(version, snapshot.findCollectionVersion());
+	}
+	
+	@Test
+	public void findByIdAndFindAllPagedShouldNotLetCallersChangeTheSnapshot() {
+		
+		CategoryDTO dto = snapshot.findById(1L);
+		Page<CategoryDTO> page = snapshot.findAllPaged(PageRequest.of(0, 10));
+		
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> dto.setName("Revistas"));
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> page.getContent().clear());
+		Assertions.assertEquals("Livros", snapshot.findById(1L).getName());
+	}
+	
+	@Test
+	public void findCollectionVersionShouldChangeWhenCategoryIsUpdatedInTheSameMillisecond() {
+		
+		String version = snapshot.findCollectionVersion();
+		// Mesmo updatedAt: so a versao do Hibernate muda
+		ReflectionTestUtils.setField(categories.get(0), "version", 1L);
+		
+		snapshot.reload();
+		
+		Assertions.assertNotEquals(version, snapshot.findCollectionVersion());
+	}
+	
+}
@@ -0,0 +1,85 @@
+package com.devsuperior.dscatalog.services;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.devsuperior.dscatalog.entities.CategoryStats;
+import com.devsuperior.dscatalog.repositories.CategoryStatsRepository;
+
+// Sem transacao na classe: cada thread precisa da sua propria transacao
+@SpringBootTest
+public class CategoryStatsServiceIT {
+
+	@Autowired
+	private CategoryStatsService service;
+
+	@Autowired
+	private CategoryStatsRepository repository;
+
+	@AfterEach
+	void cleanup() {
+		service.rebuild();
+	}
+
+	@Test
+	public void productsAddedShouldCreateMissingRowOnceWhenCalledConcurrently() throws Exception {
+		Long categoryId = 3L;
+		repository.deleteById(categoryId);
+		int threads = 8;
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> {
+					CategoryStats delta = new CategoryStats(categoryId);
+					delta.add(10.0, null);
+					start.await();
+					service.productsAdded(Map.of(categoryId, delta));
+					return null;
+				}));
+			}
+			start.countDown();
+			// Uma chave duplicada apareceria aqui como ExecutionException
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		CategoryStats stats = repository.findById(categoryId).get();
+		Assertions.assertEquals(threads, stats.getProductCount());
+		Assertions.assertEquals(0, BigDecimal.valueOf(threads * 10L).compareTo(stats.getPriceSum()));
+	}
+
+	@Test
+	public void productChangedShouldKeepExactPriceSumAfterAddingAndRemovingPrices() {
+		Long categoryId = 3L;
+		BigDecimal before = repository.findById(categoryId).get().getPriceSum();
+
+		// Precos entre o minimo e o maximo da categoria, para a remocao nao precisar recalcular
+		service.productChanged(Set.of(), null, null, Set.of(categoryId), 1500.1, null);
+		service.productChanged(Set.of(), null, null, Set.of(categoryId), 1500.2, null);
+		service.productChanged(Set.of(categoryId), 1500.1, null, Set.of(), null, null);
+		service.productChanged(Set.of(categoryId), 1500.2, null, Set.of(), null, null);
+
+		Assertions.assertEquals(before, repository.findById(categoryId).get().getPriceSum());
+	}
+
+}
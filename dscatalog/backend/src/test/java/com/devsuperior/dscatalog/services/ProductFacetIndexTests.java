@@ -0,0 +1,83 @@
+package com.devsuperior.dscatalog.services;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductFacetsDTO;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+
+public class ProductFacetIndexTests {
+	
+	private ProductFacetIndex index;
+	private Instant now;
+	
+	@BeforeEach
+	void setup() throws Exception {
+		index = new ProductFacetIndex(Mockito.mock(ProductRepository.class), new double[] {100.0, 1000.0}, new long[] {7L, 30L});
+		now = Instant.now();
+		index.index(createProduct(1L, "Smart TV", 2190.0, now.minus(2, ChronoUnit.DAYS), 1L));
+		index.index(createProduct(2L, "PC Gamer", 1200.0, now.minus(10, ChronoUnit.DAYS), 3L));
+		index.index(createProduct(3L, "PC Gamer Alfa", 100.0, now.minus(90, ChronoUnit.DAYS), 3L));
+		index.index(createProduct(4L, "Rails for Dummies", 50.0, now.minus(1, ChronoUnit.DAYS), 2L));
+	}
+	
+	@Test
+	public void facetsShouldCountAllProductsWhenThereIsNoFilter() {
+		
+		ProductFacetsDTO result = index.facets(null, "");
+		
+		Assertions.assertEquals(4L, result.getTotal());
+		Assertions.assertEquals(1L, result.getPrice().get(0).getCount());
+		Assertions.assertEquals(1L, result.getPrice().get(1).getCount());
+		Assertions.assertEquals(2L, result.getPrice().get(2).getCount());
+		Assertions.assertNull(result.getPrice().get(2).getMax());
+		Assertions.assertEquals(2L, result.getDate().get(0).getCount());
+		Assertions.assertEquals(1L, result.getDate().get(1).getCount());
+		Assertions.assertEquals(1L, result.getDate().get(2).getCount());
+	}
+	
+	@Test
+	public void facetsShouldApplyCategoryAndNameFilter() {
+		
+		ProductFacetsDTO result = index.facets(3L, "alfa");
+		
+		Assertions.assertEquals(1L, result.getTotal());
+		Assertions.assertEquals(1L, result.getPrice().get(1).getCount());
+		Assertions.assertEquals(1L, result.getDate().get(2).getCount());
+	}
+	
+	@Test
+	public void removeShouldKeepRemainingProductsInTheirCategories() {
+		
+		index.remove(1L);
+		
+		Assertions.assertEquals(3, index.size());
+		Assertions.assertEquals(0L, index.facets(1L, "").getTotal());
+		Assertions.assertEquals(2L, index.facets(3L, "").getTotal());
+		Assertions.assertEquals(1L, index.facets(2L, "").getTotal());
+	}
+	
+	@Test
+	public void indexShouldReplaceProductWhenItAlreadyExists() {
+		
+		index.index(createProduct(2L, "PC Gamer", 50.0, now, 2L));
+		
+		Assertions.assertEquals(4, index.size());
+		Assertions.assertEquals(1L, index.facets(3L, "").getTotal());
+		Assertions.assertEquals(2L, index.facets(2L, "").getPrice().get(0).getCount());
+	}
+	
+	private static ProductDTO createProduct(Long id, String name, Double price, Instant date, Long categoryId) {
+		ProductDTO dto = new ProductDTO(id, name, "", price, "", date);
+		dto.getCategories().add(new CategoryDTO(categoryId, ""));
+		return dto;
+	}
+	
+}
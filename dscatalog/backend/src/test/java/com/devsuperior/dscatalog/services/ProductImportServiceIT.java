@@ -0,0 +1,124 @@
+package com.devsuperior.dscatalog.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import com.devsuperior.dscatalog.dto.ImportReportDTO;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+
+// Sem transacao na classe: o teste de blocos precisa ver os commits de verdade
+@SpringBootTest
+public class ProductImportServiceIT {
+
+	private static final String CHUNK_TEST_PREFIX = "Chunk import item";
+
+	@Autowired
+	private ProductImportService service;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository repository;
+
+	private Long countTotalProducts;
+
+	@BeforeEach
+	void setup() throws Exception {
+		countTotalProducts = 25L;
+	}
+
+	// Apaga pelo servico para manter indices e estatisticas em memoria coerentes
+	@AfterEach
+	void cleanup() {
+		productService.findAllPaged(null, CHUNK_TEST_PREFIX, PageRequest.of(0, 1000))
+				.forEach(dto -> productService.delete(dto.getId()));
+	}
+
+	@Test
+	@Transactional
+	public void importProductsShouldPersistValidCsvRowsAndReportInvalidOnes() throws Exception {
+
+		String csv = "id,name,description,price,imgUrl,date,categoryIds\n"
+				+ ",Kindle Paperwhite,\"Leitor digital, com luz\",599.0,https://img.com/1.png,2020-07-14T10:00:00Z,1|2\n"
+				+ ",Kin,Nome curto demais,-1,https://img.com/2.png,2020-07-14T10:00:00Z,1\n"
+				+ ",Echo Dot,\"Caixa de som\ninteligente\",349.9,https://img.com/3.png,2020-07-14T10:00:00Z,2\n"
+				+ ",Fire TV Stick,Streaming,299.0,https://img.com/4.png,2020-07-14T10:00:00Z,1000\n";
+
+		ImportReportDTO report = service.importProducts(ProductFileFormat.CSV, stream(csv));
+
+		Assertions.assertEquals(2, report.getAccepted());
+		Assertions.assertEquals(2, report.getRejected());
+		Assertions.assertEquals(2L, report.getErrors().get(0).getRow());
+		Assertions.assertEquals(2, report.getErrors().get(0).getMessages().size());
+		Assertions.assertEquals(4L, report.getErrors().get(1).getRow());
+		Assertions.assertEquals(countTotalProducts + 2, repository.count());
+	}
+
+	@Test
+	@Transactional
+	public void importProductsShouldRejectMalformedNdjsonLineAndKeepGoing() throws Exception {
+
+		String ndjson = "{\"name\":\"Kindle Paperwhite\",\"description\":\"Leitor\",\"price\":599.0,\"categories\":[{\"id\":1}]}\n"
+				+ "{\"name\":\n"
+				+ "null\n"
+				+ "42\n"
+				+ "{\"name\":\"Echo Dot Max\",\"description\":\"Caixa de som\",\"price\":349.9,\"categories\":[]}\n";
+
+		ImportReportDTO report = service.importProducts(ProductFileFormat.NDJSON, stream(ndjson));
+
+		Assertions.assertEquals(2, report.getAccepted());
+		Assertions.assertEquals(3, report.getRejected());
+		Assertions.assertEquals(2L, report.getErrors().get(0).getRow());
+		Assertions.assertEquals(3L, report.getErrors().get(1).getRow());
+		Assertions.assertEquals("expected a JSON object", report.getErrors().get(1).getMessages().get(0));
+		Assertions.assertEquals(4L, report.getErrors().get(2).getRow());
+	}
+
+	@Test
+	public void importProductsShouldKeepCommittedChunksAndRetryFailedChunkRowByRow() throws Exception {
+
+		int rows = ProductImportService.CHUNK_SIZE + 10;
+		// Passa na validacao mas nao cabe na coluna: so o banco recusa, no segundo bloco
+		long failingRow = ProductImportService.CHUNK_SIZE + 3;
+		StringBuilder ndjson = new StringBuilder();
+		for (int row = 1; row <= rows; row++) {
+			String imgUrl = row == failingRow ? "https://img.com/" + "x".repeat(300) : "https://img.com/" + row + ".png";
+			ndjson.append(String.format("{\"name\":\"%s %d\",\"description\":\"Item\",\"price\":10.0,\"imgUrl\":\"%s\"}\n",
+					CHUNK_TEST_PREFIX, row, imgUrl));
+		}
+
+		ImportReportDTO report = service.importProducts(ProductFileFormat.NDJSON, stream(ndjson.toString()));
+
+		Assertions.assertEquals(rows - 1, report.getAccepted());
+		Assertions.assertEquals(1, report.getRejected());
+		Assertions.assertEquals(failingRow, report.getErrors().get(0).getRow());
+		Assertions.assertEquals(countTotalProducts + rows - 1, repository.count());
+		Assertions.assertEquals(rows - 1, productService
+				.findAllPaged(null, CHUNK_TEST_PREFIX, PageRequest.of(0, 1000)).getTotalElements());
+		// Primeiro bloco gravado inteiro; do segundo so a linha recusada ficou de fora
+		Assertions.assertEquals(1, countByName(CHUNK_TEST_PREFIX + " 500"));
+		Assertions.assertEquals(0, countByName(CHUNK_TEST_PREFIX + " " + failingRow));
+		Assertions.assertEquals(1, countByName(CHUNK_TEST_PREFIX + " " + (failingRow + 1)));
+	}
+
+	private long countByName(String name) {
+		return productService.findAllPaged(null, name, PageRequest.of(0, 10)).getTotalElements();
+	}
+
+	private InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
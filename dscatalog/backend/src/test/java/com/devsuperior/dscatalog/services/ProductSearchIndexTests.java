@@ -0,0 +1,100 @@
+package com.devsuperior.dscatalog.services;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageImpl;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+
+public class ProductSearchIndexTests {
+	
+	private ProductSearchIndex index;
+	private ProductRepository repository;
+	
+	@BeforeEach
+	void setup() throws Exception {
+		repository = Mockito.mock(ProductRepository.class);
+		index = new ProductSearchIndex(repository);
+		index.index(createProduct(1L, "Smart TV", "Televisão com tela grande"));
+		index.index(createProduct(2L, "PC Gamer", "Computador para jogos com placa de vídeo"));
+		index.index(createProduct(3L, "Notebook", "Computador portátil para trabalho e jogos leves"));
+	}
+	
+	@Test
+	public void searchShouldRankNameMatchesFirst() {
+		
+		List<ProductDTO> result = index.search("gamer computador", null, 10);
+		
+		Assertions.assertEquals(2, result.size());
+		Assertions.assertEquals(2L, result.get(0).getId());
+		Assertions.assertEquals(3L, result.get(1).getId());
+	}
+	
+	@Test
+	public void searchShouldIgnoreCaseAndAccents() {
+		
+		List<ProductDTO> result = index.search("TELEVISAO", null, 10);
+		
+		Assertions.assertEquals(1, result.size());
+		Assertions.assertEquals(1L, result.get(0).getId());
+	}
+	
+	@Test
+	public void searchShouldNotReturnProductWhenItWasRemoved() {
+		
+		index.remove(2L);
+		
+		List<ProductDTO> result = index.search("gamer", null, 10);
+		
+		Assertions.assertTrue(result.isEmpty());
+		Assertions.assertEquals(2, index.size());
+	}
+	
+	@Test
+	public void searchShouldUseNewTermsWhenProductIsReindexed() {
+		
+		index.index(createProduct(3L, "Ultrabook", "Leve e fino"));
+		
+		Assertions.assertTrue(index.search("notebook", null, 10).isEmpty());
+		Assertions.assertEquals(3L, index.search("ultrabook", null, 10).get(0).getId());
+	}
+	
+	@Test
+	public void searchShouldFilterByCategoryAfterRebuild() {
+		
+		Product tv = createEntity(1L, "Smart TV", "Televisão com tela grande", 2L);
+		Product pc = createEntity(2L, "PC Gamer", "Computador para jogos", 3L);
+		Product notebook = createEntity(3L, "Notebook", "Computador portátil", 3L);
+		Mockito.when(repository.searchIds(ArgumentMatchers.eq(""), ArgumentMatchers.any()))
+				.thenReturn(new PageImpl<>(List.of(1L, 2L, 3L)));
+		Mockito.when(repository.findProductsWithCategories(List.of(1L, 2L, 3L))).thenReturn(List.of(tv, pc, notebook));
+		
+		index.rebuild();
+		
+		Assertions.assertEquals(3, index.size());
+		Assertions.assertEquals(2, index.search("computador", 3L, 10).size());
+		Assertions.assertTrue(index.search("computador", 2L, 10).isEmpty());
+		Assertions.assertEquals(1L, index.search("televisao", 2L, 10).get(0).getId());
+		Assertions.assertEquals(1, index.search("televisao", 2L, 10).get(0).getCategories().size());
+	}
+	
+	private Product createEntity(Long id, String name, String description, Long categoryId) {
+		Product product = new Product(id, name, description, 100.0, "https://img.com/img.png", Instant.parse("2020-10-20T03:00:00Z"));
+		product.getCategories().add(new Category(categoryId, "Categoria " + categoryId));
+		return product;
+	}
+	
+	private ProductDTO createProduct(Long id, String name, String description) {
+		return new ProductDTO(id, name, description, 100.0, "https://img.com/img.png", Instant.parse("2020-10-20T03:00:00Z"));
+	}
+
+}
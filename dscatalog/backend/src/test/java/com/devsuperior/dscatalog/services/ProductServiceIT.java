@@ -1,5 +1,11 @@
 package com.devsuperior.dscatalog.services;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManagerFactory;
 import javax.transaction.Transactional;
 
 import org.junit.jupiter.api.Assertions;
@@ -11,9 +17,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.CategoryStatsDTO;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.tests.Factory;
+import com.devsuperior.dscatalog.tests.QueryCount;
 
 @SpringBootTest
 @Transactional
@@ -25,6 +38,15 @@ public class ProductServiceIT {
 	@Autowired
 	private ProductRepository repository;
 	
+	@Autowired
+	private ProductCache productCache;
+	
+	@Autowired
+	private CategoryStatsService categoryStatsService;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
 	private Long existingId;
 	private Long nonExistingId;
 	private Long countTotalProducts;
@@ -34,6 +56,8 @@ public class ProductServiceIT {
 		existingId = 1L;
 		nonExistingId = 1000L;
 		countTotalProducts = 25L;
+		// Sem cache de segundo nivel aquecido, um N+1 aparece como SELECT
+		entityManagerFactory.getCache().evictAll();
 	}
 	
 	@Test
@@ -57,7 +81,7 @@ public class ProductServiceIT {
 		
 		PageRequest pageRequest = PageRequest.of(0, 10);
 		
-		Page<ProductDTO> result = service.findAllPaged(pageRequest);
+		Page<ProductDTO> result = service.findAllPaged(0L, "", pageRequest);
 		
 		Assertions.assertFalse(result.isEmpty());
 		Assertions.assertEquals(0, result.getNumber());
@@ -65,12 +89,29 @@ public class ProductServiceIT {
 		Assertions.assertEquals(countTotalProducts, result.getTotalElements());
 	}
 	
+	@Test
+	public void updateShouldChangeVersionWhenOnlyCategoriesChange() {
+		
+		// O cache so e invalidado depois do commit, que nao acontece no teste
+		productCache.invalidateAll();
+		ProductDTO dto = service.findById(existingId);
+		productCache.invalidateAll();
+		String before = service.findVersion(existingId).get();
+		
+		dto.getCategories().clear();
+		dto.getCategories().add(new CategoryDTO(3L, null));
+		service.update(existingId, dto);
+		
+		productCache.invalidateAll();
+		Assertions.assertNotEquals(before, service.findVersion(existingId).get());
+	}
+	
 	@Test
 	public void findAllPagedShouldReturnEmptyPageWhenPageDoesNotExist() {
 		
 		PageRequest pageRequest = PageRequest.of(50, 10);
 		
-		Page<ProductDTO> result = service.findAllPaged(pageRequest);
+		Page<ProductDTO> result = service.findAllPaged(0L, "", pageRequest);
 		
 		Assertions.assertTrue(result.isEmpty());
 
@@ -81,7 +122,7 @@ public class ProductServiceIT {
 		
 		PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("name"));
 		
-		Page<ProductDTO> result = service.findAllPaged(pageRequest);
+		Page<ProductDTO> result = service.findAllPaged(0L, "", pageRequest);
 		
 		Assertions.assertFalse(result.isEmpty());
 		Assertions.assertEquals("Macbook Pro", result.getContent().get(0).getName());
@@ -90,4 +131,177 @@ public class ProductServiceIT {
 
 	}
 	
+	@Test
+	public void findAllPagedShouldReturnOnlyProductsOfCategoryWhenCategoryIdIsGiven() {
+		
+		PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("name"));
+		
+		Page<ProductDTO> result = service.findAllPaged(2L, "", pageRequest);
+		
+		Assertions.assertEquals(2, result.getTotalElements());
+		Assertions.assertEquals("Rails for Dummies", result.getContent().get(0).getName());
+		Assertions.assertEquals("The Lord of the Rings", result.getContent().get(1).getName());
+		Assertions.assertFalse(result.getContent().get(0).getCategories().isEmpty());
+	}
+	
+	@Test
+	public void findAllPagedShouldFilterByNameIgnoringCase() {
+		
+		PageRequest pageRequest = PageRequest.of(0, 10);
+		
+		Page<ProductDTO> result = service.findAllPaged(0L, "gamer", pageRequest);
+		
+		Assertions.assertEquals(21, result.getTotalElements());
+		result.forEach(dto -> Assertions.assertTrue(dto.getName().contains("Gamer")));
+	}
+	
+	@Test
+	public void findAllByCursorShouldWalkAllProductsSortedByNameWithoutRepeating() {
+		
+		CursorPageDTO<ProductDTO> first = service.findAllByCursor(null, 10);
+		
+		Assertions.assertEquals(10, first.getContent().size());
+		Assertions.assertEquals("Macbook Pro", first.getContent().get(0).getName());
+		Assertions.assertEquals("PC Gamer", first.getContent().get(1).getName());
+		Assertions.assertNotNull(first.getNext());
+		
+		Set<Long> seen = new HashSet<>();
+		CursorPageDTO<ProductDTO> page = first;
+		page.getContent().forEach(dto -> seen.add(dto.getId()));
+		while (!page.isLast()) {
+			page = service.findAllByCursor(page.getNext(), 10);
+			page.getContent().forEach(dto -> Assertions.assertTrue(seen.add(dto.getId())));
+		}
+		
+		Assertions.assertEquals(countTotalProducts.longValue(), seen.size());
+	}
+	
+	@Test
+	public void findAllByCursorShouldThrowBadRequestExceptionWhenCursorIsInvalid() {
+		
+		Assertions.assertThrows(BadRequestException.class, () -> {
+			service.findAllByCursor("not-a-cursor", 10);
+		});
+	}
+	
+	@Test
+	public void insertBatchShouldPersistAllProductsAndReturnIdsInOrder() {
+		
+		List<ProductDTO> dtos = List.of(Factory.createProductDTO(), Factory.createProductDTO(), Factory.createProductDTO());
+		dtos.forEach(dto -> dto.setId(null));
+		dtos.get(1).setName("Second Phone");
+		
+		List<Long> ids = service.insertBatch(dtos);
+		
+		Assertions.assertEquals(3, ids.size());
+		Assertions.assertTrue(ids.get(0) < ids.get(1) && ids.get(1) < ids.get(2));
+		Assertions.assertEquals(countTotalProducts + 3, repository.count());
+		Assertions.assertEquals("Second Phone", repository.findById(ids.get(1)).get().getName());
+	}
+	
+	@Test
+	public void insertBatchShouldSendOneJdbcBatchPerTable() {
+		
+		List<ProductDTO> dtos = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			ProductDTO dto = Factory.createProductDTO();
+			dto.setId(null);
+			dtos.add(dto);
+		}
+		
+		QueryCount count = QueryCount.of(() -> {
+			service.insertBatch(dtos);
+			repository.flush();
+			return null;
+		});
+		
+		// Abaixo do batch_size cada tabela recebe um so comando preparado: tb_product e tb_product_category
+		Assertions.assertEquals(2L, count.getInserts());
+	}
+	
+	@Test
+	public void insertBatchShouldThrowBadRequestExceptionWhenCategoryDoesNotExist() {
+		
+		ProductDTO dto = Factory.createProductDTO();
+		dto.getCategories().get(0).setId(nonExistingId);
+		
+		Assertions.assertThrows(BadRequestException.class, () -> {
+			service.insertBatch(List.of(dto));
+		});
+	}
+	
+	@Test
+	public void findSummariesPagedShouldReturnSortedSummariesWithFilter() {
+		
+		PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("name"));
+		
+		Page<ProductSummaryDTO> result = service.findSummariesPaged(3L, "gamer", pageRequest);
+		
+		Assertions.assertEquals(21, result.getTotalElements());
+		Assertions.assertEquals("PC Gamer", result.getContent().get(0).getName());
+		Assertions.assertEquals("PC Gamer Alfa", result.getContent().get(1).getName());
+		Assertions.assertNotNull(result.getContent().get(0).getPrice());
+	}
+	
+	@Test
+	public void insertAndDeleteShouldKeepCategoryStatsUpToDate() {
+		
+		ProductDTO dto = Factory.createProductDTO();
+		dto.setId(null);
+		
+		ProductDTO result = service.insert(dto);
+		CategoryStatsDTO afterInsert = categoryStatsService.findByCategoryId(1L);
+		
+		Assertions.assertEquals(2L, afterInsert.getProductCount());
+		Assertions.assertEquals(800.0, afterInsert.getMinPrice());
+		Assertions.assertEquals(2190.0, afterInsert.getMaxPrice());
+		Assertions.assertEquals((800.0 + 2190.0) / 2, afterInsert.getAvgPrice(), 0.001);
+		
+		service.delete(2L);
+		CategoryStatsDTO afterDelete = categoryStatsService.findByCategoryId(1L);
+		
+		Assertions.assertEquals(1L, afterDelete.getProductCount());
+		Assertions.assertEquals(800.0, afterDelete.getMaxPrice());
+		Assertions.assertEquals(dto.getDate(), afterDelete.getLatestDate());
+		
+		service.delete(result.getId());
+		
+		Assertions.assertEquals(0L, categoryStatsService.findByCategoryId(1L).getProductCount());
+	}
+	
+	@Test
+	public void rebuildShouldMatchIncrementalCategoryStats() {
+		
+		List<ProductDTO> dtos = List.of(Factory.createProductDTO(), Factory.createProductDTO());
+		dtos.forEach(dto -> dto.setId(null));
+		dtos.get(1).setPrice(3000.0);
+		service.insertBatch(dtos);
+		CategoryStatsDTO incremental = categoryStatsService.findByCategoryId(1L);
+		
+		categoryStatsService.rebuild();
+		CategoryStatsDTO rebuilt = categoryStatsService.findByCategoryId(1L);
+		
+		Assertions.assertEquals(3L, rebuilt.getProductCount());
+		Assertions.assertEquals(incremental.getProductCount(), rebuilt.getProductCount());
+		Assertions.assertEquals(incremental.getMinPrice(), rebuilt.getMinPrice());
+		Assertions.assertEquals(3000.0, rebuilt.getMaxPrice());
+		Assertions.assertEquals(incremental.getAvgPrice(), rebuilt.getAvgPrice(), 0.001);
+	}
+	
+	@Test
+	public void findAllPagedShouldLoadCategoriesWithoutOneQueryPerProduct() {
+		
+		QueryCount.of(() -> service.findAllPaged(0L, "", PageRequest.of(0, 20)))
+				.assertSelects(3)
+				.assertNoCollectionFetches();
+	}
+	
+	@Test
+	public void findAllByCursorShouldLoadCategoriesWithoutOneQueryPerProduct() {
+		
+		QueryCount.of(() -> service.findAllByCursor(null, 20))
+				.assertSelects(2)
+				.assertNoCollectionFetches();
+	}
+	
 }
@@ -1,8 +1,10 @@
 package com.devsuperior.dscatalog.services;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
 
 import org.junit.jupiter.api.Assertions;
@@ -13,6 +15,8 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
@@ -42,10 +46,34 @@ public class ProductServiceTests {
 	@Mock
 	private CategoryRepository categoryRepository;
 	
+	@Mock
+	private ProductSearchIndex searchIndex;
+	
+	@Mock
+	private ProductFacetIndex facetIndex;
+	
+	@Spy
+	private ProductCache productCache = new ProductCache(100, Duration.ofMinutes(1));
+	
+	@Mock
+	private CategoryStatsService categoryStatsService;
+	
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	
+	@Mock
+	private CategorySnapshot categorySnapshot;
+	
+	@Mock
+	private EntityManager entityManager;
+	
+	@Mock
+	private ProductViewCounter productViewCounter;
+	
 	private long existingId;
 	private long nonExistingId;
 	private long dependentId;
-	private PageImpl<Product> page;
+	private PageImpl<Long> page;
 	private Product product;
 	private Category category;
 	private ProductDTO productDto;
@@ -60,17 +88,19 @@ public class ProductServiceTests {
 		product = Factory.createProduct();
 		productDto = Factory.createProductDTO();
 		category = Factory.createCategory();
-		page = new PageImpl<>(List.of(product));
+		page = new PageImpl<>(List.of(existingId));
 		
 		//Find all
-		Mockito.when(productRepository.findAll((Pageable) ArgumentMatchers.any())).thenReturn(page);
+		Mockito.when(productRepository.searchIds(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(page);
+		Mockito.when(productRepository.searchIdsByCategory(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(page);
+		Mockito.when(productRepository.findProductsWithCategories(ArgumentMatchers.any())).thenReturn(List.of(product));
 		
 		//Save
 		Mockito.when(productRepository.save(ArgumentMatchers.any())).thenReturn(product);
 		
 		//Find by id
-		Mockito.when(productRepository.findById(existingId)).thenReturn(Optional.of(product));
-		Mockito.when(productRepository.findById(nonExistingId)).thenReturn(Optional.empty());
+		Mockito.when(productRepository.findWithCategoriesById(existingId)).thenReturn(Optional.of(product));
+		Mockito.when(productRepository.findWithCategoriesById(nonExistingId)).thenReturn(Optional.empty());
 		
 		//Product Get One
 		Mockito.when(productRepository.getOne(existingId)).thenReturn(product);
@@ -114,7 +144,7 @@ public class ProductServiceTests {
 			service.findById(nonExistingId);
 		});
 		
-		Mockito.verify(productRepository, Mockito.times(1)).findById(nonExistingId);
+		Mockito.verify(productRepository, Mockito.times(1)).findWithCategoriesById(nonExistingId);
 		
 	}
 	
@@ -126,8 +156,36 @@ public class ProductServiceTests {
 		
 		Assertions.assertNotNull(result);;
 		
-		Mockito.verify(productRepository, Mockito.times(1)).findById(existingId);
+		Mockito.verify(productRepository, Mockito.times(1)).findWithCategoriesById(existingId);
+		
+	}
+	
+	
+	@Test
+	public void findByIdShouldHitRepositoryOnlyOnceWhenProductIsCached() {
+		
+		service.findById(existingId);
+		ProductDTO result = service.findById(existingId);
+		
+		Assertions.assertNotNull(result);
+		Mockito.verify(productRepository, Mockito.times(1)).findWithCategoriesById(existingId);
+		Assertions.assertEquals(1L, productCache.stats().getHitCount());
+	}
+	
+	
+	@Test
+	public void findByIdShouldNotLetCallersChangeTheCachedProduct() {
+		
+		ProductDTO first = service.findById(existingId);
+		int categories = first.getCategories().size();
+		String name = first.getName();
+		first.setName("Changed by caller");
+		first.getCategories().clear();
+		
+		ProductDTO second = service.findById(existingId);
 		
+		Assertions.assertEquals(name, second.getName());
+		Assertions.assertEquals(categories, second.getCategories().size());
 	}
 	
 	
@@ -136,10 +194,12 @@ public class ProductServiceTests {
 		
 		Pageable pageable = PageRequest.of(0, 10);
 	
-		Page<ProductDTO> result = service.findAllPaged(pageable);
+		Page<ProductDTO> result = service.findAllPaged(0L, "", pageable);
 		
 		Assertions.assertNotNull(result);
-		Mockito.verify(productRepository, Mockito.times(1)).findAll(pageable);
+		Assertions.assertEquals(1, result.getContent().size());
+		Mockito.verify(productRepository, Mockito.times(1)).searchIds("", pageable);
+		Mockito.verify(productRepository, Mockito.times(1)).findProductsWithCategories(List.of(existingId));
 		
 	}
 	
@@ -153,6 +213,18 @@ public class ProductServiceTests {
 		Mockito.verify(productRepository, Mockito.times(1)).deleteById(dependentId);
 	}
 	
+	@Test
+	public void findVersionShouldChangeWhenCategoriesAreRenamed() {
+		
+		Mockito.when(categorySnapshot.findCollectionVersion()).thenReturn("3-1000-0-3", "3-1000-1-3");
+		service.findById(existingId);
+		
+		String before = service.findVersion(existingId).get();
+		String after = service.findVersion(existingId).get();
+		
+		Assertions.assertNotEquals(before, after);
+	}
+	
 	@Test
 	public void deleteShouldThrowResourceNotFoundExceptionWhenIdDoesNotExist() {
 		
@@ -0,0 +1,129 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Intervalo longo: so os flush() do proprio teste gravam no banco, que e proprio por ser outro contexto
+@SpringBootTest(properties = {
+		"app.product-views.flush-interval=1h",
+		"spring.datasource.url=jdbc:h2:mem:viewsdb",
+		"spring.r2dbc.url=r2dbc:h2:mem:///viewsdb"
+})
+public class ProductViewCounterIT {
+
+	@Autowired
+	private ProductViewCounter counter;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductCache productCache;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setup() throws Exception {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		counter.flush();
+	}
+
+	@Test
+	public void flushShouldWriteEveryIncrementFromConcurrentThreads() throws Exception {
+		long before = viewCount(22L);
+		int threads = 8;
+		int incrementsPerThread = 10000;
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> {
+					for (int j = 0; j < incrementsPerThread; j++) {
+						counter.increment(22L);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		Assertions.assertEquals(threads * incrementsPerThread, counter.pending(22L));
+		Assertions.assertEquals(before, viewCount(22L));
+
+		Assertions.assertEquals(1, counter.flush());
+
+		Assertions.assertEquals(0L, counter.pending(22L));
+		Assertions.assertEquals(before + threads * incrementsPerThread, viewCount(22L));
+	}
+
+	@Test
+	public void flushShouldDoNothingWhenThereAreNoNewViews() {
+		Assertions.assertEquals(0, counter.flush());
+	}
+
+	@Test
+	public void flushShouldKeepCountingAfterDrainedCountersAreRemoved() {
+		long before = viewCount(22L);
+
+		counter.increment(22L);
+		Assertions.assertEquals(1, counter.flush());
+		Assertions.assertEquals(0, counter.flush());
+		counter.increment(22L);
+		counter.increment(22L);
+
+		Assertions.assertEquals(2L, counter.pending(22L));
+		Assertions.assertEquals(1, counter.flush());
+		Assertions.assertEquals(before + 3, viewCount(22L));
+	}
+
+	@Test
+	public void flushShouldEvictCachedProductAndChangeItsVersion() {
+		long before = productService.findById(23L).getViewCount();
+		String versionBefore = productService.findVersion(23L).get();
+
+		counter.increment(23L);
+		counter.increment(23L);
+		counter.increment(23L);
+
+		// Ainda nao gravado: nem o DTO nem o ETag mudam
+		Assertions.assertEquals(before, productService.findById(23L).getViewCount());
+		Assertions.assertEquals(versionBefore, productService.findVersion(23L).get());
+
+		counter.flush();
+
+		Assertions.assertEquals(before + 3, viewCount(23L));
+		Assertions.assertNull(productCache.getIfPresent(23L));
+		String versionAfter = productService.findVersion(23L).get();
+		Assertions.assertNotEquals(versionBefore, versionAfter);
+
+		// De volta ao cache, o DTO traz o total novo e a versao bate com a lida do banco
+		Assertions.assertEquals(before + 3, productService.findById(23L).getViewCount());
+		Assertions.assertNotNull(productCache.getIfPresent(23L));
+		Assertions.assertEquals(versionAfter, productService.findVersion(23L).get());
+	}
+
+	private long viewCount(Long id) {
+		return jdbcTemplate.queryForObject("SELECT view_count FROM tb_product WHERE id = ?", Long.class, id);
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.devsuperior.dscatalog.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.devsuperior.dscatalog.dto.ImportErrorDTO;
+import com.devsuperior.dscatalog.dto.ImportReportDTO;
+import com.devsuperior.dscatalog.entities.User;
+import com.devsuperior.dscatalog.repositories.UserRepository;
+
+// Sem transacao na classe: o teste de blocos precisa ver os commits de verdade. A
+// fila curta do pool no perfil de teste faz o envio das senhas bloquear
+@SpringBootTest
+public class UserImportServiceIT {
+
+	private static final String CHUNK_TEST_DOMAIN = "@chunk-import.com";
+
+	@Autowired
+	private UserImportService service;
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private BCryptPasswordEncoder passwordEncoder;
+
+	@AfterEach
+	void cleanup() {
+		repository.deleteAll(repository.findAll().stream()
+				.filter(user -> user.getEmail().endsWith(CHUNK_TEST_DOMAIN))
+				.collect(Collectors.toList()));
+	}
+
+	@Test
+	@Transactional
+	public void importUsersShouldHashPasswordsAndReportInvalidRows() throws Exception {
+
+		String ndjson = "{\"firstName\":\"Bob\",\"email\":\"bob@gmail.com\",\"password\":\"123456\",\"roles\":[{\"id\":1}]}\n"
+				+ "{\"firstName\":\"Bob\",\"email\":\"bob@gmail.com\",\"password\":\"654321\",\"roles\":[]}\n"
+				+ "{\"firstName\":\"Alex\",\"email\":\"alex@gmail.com\",\"password\":\"123456\",\"roles\":[]}\n"
+				+ "{\"firstName\":\"Ana\",\"email\":\"ana@gmail.com\",\"roles\":[]}\n"
+				+ "{\"firstName\":\"Joao\",\"email\":\"joao@gmail.com\",\"password\":\"123456\",\"roles\":[{\"id\":1000}]}\n"
+				+ "{\"firstName\":\n"
+				+ "null\n";
+
+		ImportReportDTO report = service.importUsers(stream(ndjson));
+
+		Assertions.assertEquals(1, report.getAccepted());
+		Assertions.assertEquals(6, report.getRejected());
+		List<Long> rows = report.getErrors().stream().map(ImportErrorDTO::getRow).sorted().collect(Collectors.toList());
+		Assertions.assertEquals(List.of(2L, 3L, 4L, 5L, 6L, 7L), rows);
+		Assertions.assertEquals(List.of("expected a JSON object"), report.getErrors().stream()
+				.filter(error -> error.getRow() == 7L).findFirst().get().getMessages());
+		Assertions.assertEquals(3L, repository.count());
+
+		User bob = repository.findByEmail("bob@gmail.com").get();
+		Assertions.assertTrue(passwordEncoder.matches("123456", bob.getPassword()));
+		Assertions.assertEquals(1, bob.getRoles().size());
+	}
+
+	@Test
+	public void importUsersShouldKeepCommittedChunksAndRetryFailedChunkRowByRow() throws Exception {
+
+		long countTotalUsers = repository.count();
+		int rows = UserImportService.CHUNK_SIZE + 10;
+		// Passa na validacao mas nao cabe na coluna: so o banco recusa, no segundo bloco
+		long failingRow = UserImportService.CHUNK_SIZE + 3;
+		StringBuilder ndjson = new StringBuilder();
+		for (int row = 1; row <= rows; row++) {
+			String lastName = row == failingRow ? "x".repeat(300) : "Silva";
+			ndjson.append(String.format("{\"firstName\":\"User\",\"lastName\":\"%s\",\"email\":\"user%d%s\","
+					+ "\"password\":\"123456\",\"roles\":[{\"id\":1}]}\n", lastName, row, CHUNK_TEST_DOMAIN));
+		}
+
+		ImportReportDTO report = service.importUsers(stream(ndjson.toString()));
+
+		Assertions.assertEquals(rows - 1, report.getAccepted());
+		Assertions.assertEquals(1, report.getRejected());
+		Assertions.assertEquals(failingRow, report.getErrors().get(0).getRow());
+		Assertions.assertEquals(countTotalUsers + rows - 1, repository.count());
+		// Primeiro bloco gravado inteiro; do segundo so a linha recusada ficou de fora
+		Assertions.assertTrue(repository.findByEmail("user1" + CHUNK_TEST_DOMAIN).isPresent());
+		Assertions.assertTrue(repository.findByEmail("user" + UserImportService.CHUNK_SIZE + CHUNK_TEST_DOMAIN).isPresent());
+		Assertions.assertTrue(repository.findByEmail("user" + failingRow + CHUNK_TEST_DOMAIN).isEmpty());
+		Assertions.assertTrue(repository.findByEmail("user" + (failingRow + 1) + CHUNK_TEST_DOMAIN).isPresent());
+		Assertions.assertTrue(repository.findByEmail("user" + rows + CHUNK_TEST_DOMAIN).isPresent());
+	}
+
+	private InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.devsuperior.dscatalog.dto.UserDTO;
+import com.devsuperior.dscatalog.tests.QueryCount;
+
+@SpringBootTest
+public class UserServiceIT {
+	
+	@Autowired
+	private UserService service;
+	
+	@Autowired
+	private UserDetailsCache userDetailsCache;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	private Statistics statistics;
+	
+	@BeforeEach
+	void setup() throws Exception {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		userDetailsCache.invalidateAll();
+	}
+	
+	@Test
+	public void loadUserByUsernameShouldReturnAuthoritiesAndHitCacheOnSecondCall() {
+		
+		service.loadUserByUsername("maria@gmail.com");
+		statistics.clear();
+		
+		UserDetails result = service.loadUserByUsername("maria@gmail.com");
+		
+		Set<String> authorities = result.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+		Assertions.assertEquals(Set.of("ROLE_OPERATOR", "ROLE_ADMIN"), authorities);
+		Assertions.assertNotNull(result.getPassword());
+		Assertions.assertEquals(0L, statistics.getPrepareStatementCount());
+	}
+	
+	@Test
+	public void loadUserByUsernameShouldThrowUsernameNotFoundExceptionWhenEmailDoesNotExist() {
+		
+		Assertions.assertThrows(UsernameNotFoundException.class, () -> {
+			service.loadUserByUsername("nobody@gmail.com");
+		});
+	}
+	
+	@Test
+	public void updateShouldInvalidateCachedUserDetails() {
+		
+		service.loadUserByUsername("alex@gmail.com");
+		UserDTO dto = service.findById(1L);
+		dto.setEmail("alex.brown@gmail.com");
+		
+		service.update(1L, dto);
+		
+		try {
+			Assertions.assertThrows(UsernameNotFoundException.class, () -> {
+				service.loadUserByUsername("alex@gmail.com");
+			});
+			Assertions.assertEquals("alex.brown@gmail.com", service.loadUserByUsername("alex.brown@gmail.com").getUsername());
+		}
+		finally {
+			dto.setEmail("alex@gmail.com");
+			service.update(1L, dto);
+		}
+	}
+	
+	@Test
+	public void findAllPagedShouldLoadRolesWithoutOneQueryPerUser() {
+		
+		statistics.clear();
+		
+		Page<UserDTO> result = service.findAllPaged(PageRequest.of(0, 10, Sort.by("email")));
+		
+		Assertions.assertEquals(2, result.getContent().size());
+		Assertions.assertEquals("alex@gmail.com", result.getContent().get(0).getEmail());
+		Assertions.assertEquals(2, result.getContent().get(1).getRoles().size());
+		Assertions.assertTrue(statistics.getPrepareStatementCount() <= 3L);
+	}
+	
+	@Test
+	public void findAllByCursorShouldLoadRolesWithoutOneQueryPerUser() {
+		
+		entityManagerFactory.getCache().evictAll();
+		
+		QueryCount.of(() -> service.findAllByCursor(null, 20))
+				.assertSelects(2)
+				.assertNoCollectionFetches();
+	}
+	
+	@Test
+	public void findByIdShouldLoadUserAndRolesInOneSelect() {
+		
+		entityManagerFactory.getCache().evictAll();
+		
+		QueryCount.of(() -> service.findById(2L))
+				.assertSelects(1)
+				.assertNoCollectionFetches();
+	}
+	
+}
@@ -0,0 +1,85 @@
+package com.devsuperior.dscatalog.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import com.devsuperior.dscatalog.config.HibernateRequestStats;
+
+/**
+ * Conta os comandos SQL que o Hibernate executa durante uma chamada, na thread
+ * do teste. Serve para chamadas de servico e para requisicoes MockMvc, que
+ * rodam na mesma thread.
+ *
+ * <pre>
+ * QueryCount count = QueryCount.of(() -&gt; service.findAllPaged(...));
+ * count.assertSelects(3).assertNoCollectionFetches();
+ * </pre>
+ */
+public final class QueryCount {
+
+	private final HibernateRequestStats.Counts counts;
+
+	private QueryCount(HibernateRequestStats.Counts counts) {
+		this.counts = counts;
+	}
+
+	public static QueryCount of(ThrowingSupplier<?> action) {
+		HibernateRequestStats.Counts counts = HibernateRequestStats.start();
+		try {
+			action.get();
+		}
+		catch (RuntimeException | Error e) {
+			throw e;
+		}
+		catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+		finally {
+			HibernateRequestStats.stop(counts);
+		}
+		return new QueryCount(counts);
+	}
+
+	public QueryCount assertSelects(long max) {
+		return assertAtMost("SELECT", counts.getSelects(), max);
+	}
+
+	public QueryCount assertInserts(long max) {
+		return assertAtMost("INSERT", counts.getInserts(), max);
+	}
+
+	public QueryCount assertUpdates(long max) {
+		return assertAtMost("UPDATE", counts.getUpdates(), max);
+	}
+
+	public QueryCount assertDeletes(long max) {
+		return assertAtMost("DELETE", counts.getDeletes(), max);
+	}
+
+	// Colecao LAZY inicializada uma a uma e o sintoma classico de N+1
+	public QueryCount assertNoCollectionFetches() {
+		Assertions.assertEquals(0L, counts.getCollectionFetches(),
+				"expected no lazy collection initialization (N+1)");
+		return this;
+	}
+
+	public long getSelects() {
+		return counts.getSelects();
+	}
+
+	// Com batching JDBC cada lote conta uma vez, pois o Hibernate prepara o comando uma vez por lote
+	public long getInserts() {
+		return counts.getInserts();
+	}
+
+	public long getStatements() {
+		return counts.getStatements();
+	}
+
+	private QueryCount assertAtMost(String command, long actual, long max) {
+		Assertions.assertTrue(actual <= max,
+				String.format("expected at most %d %s statements but %d were executed", max, command, actual));
+		return this;
+	}
+
+}